@@ -0,0 +1,12 @@
+#!/bin/sh
+# Compiles src/main and src/bench into out/ and runs every benchmark.
+# Usage: ./bench.sh [size...]
+set -e
+
+cd "$(dirname "$0")"
+
+# LinkedListAlgorithms.java does not compile against the current LinkedList.
+javac -encoding UTF-8 -d out \
+  $(find src/main src/bench -name '*.java' ! -name LinkedListAlgorithms.java)
+
+exec java -cp out Benchmarks "$@"
@@ -0,0 +1,75 @@
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A minimal microbenchmark harness.
+ *
+ * <p>Each benchmark builds fresh state with an untimed setup, then times a body that performs a
+ * known number of operations. The body is run for a number of warmup iterations so the JIT compiles
+ * it, then for a number of measured iterations. For each benchmark, the mean and best time per
+ * operation and the bytes allocated per operation (the same figure as JMH's {@code -prof gc}) are
+ * printed.
+ *
+ * <p>Results that a body wants to keep alive should be passed to {@link #consume(Object)} so the
+ * JIT cannot eliminate the work that produced them.
+ */
+public class Benchmark {
+  static final int WARMUP_ITERATIONS = 10;
+  static final int ITERATIONS = 10;
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  /** Sink for results, so that the work producing them is not optimized away. */
+  static volatile Object sink;
+
+  /**
+   * Keeps a result alive.
+   *
+   * @param result
+   */
+  static void consume(Object result) {
+    sink = result;
+  }
+
+  /**
+   * Runs and reports one benchmark.
+   *
+   * @param name the name of the benchmark
+   * @param operations the number of operations one run of the body performs
+   * @param setup builds the state for one run of the body; not timed
+   * @param body the timed code
+   */
+  static <S> void run(String name, int operations, Supplier<S> setup, Consumer<S> body) {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) body.accept(setup.get());
+
+    long totalTime = 0;
+    long bestTime = Long.MAX_VALUE;
+    long totalAllocated = 0;
+
+    for (int i = 0; i < ITERATIONS; i++) {
+      S state = setup.get();
+
+      long allocated = THREADS.getCurrentThreadAllocatedBytes();
+      long start = System.nanoTime();
+
+      body.accept(state);
+
+      long time = System.nanoTime() - start;
+      totalAllocated += THREADS.getCurrentThreadAllocatedBytes() - allocated;
+
+      totalTime += time;
+      bestTime = Math.min(bestTime, time);
+    }
+
+    double operationsRun = (double) operations * ITERATIONS;
+
+    System.out.printf(
+        "%-48s %10.2f ns/op (best %8.2f) %10.2f B/op%n",
+        name,
+        totalTime / operationsRun,
+        (double) bestTime / operations,
+        totalAllocated / operationsRun);
+  }
+}
@@ -0,0 +1,27 @@
+/**
+ * Runs every benchmark.
+ *
+ * <p>Usage: {@code java Benchmarks [size...]}, where each size is a number of elements to run the
+ * benchmarks with. Defaults to 1000 and 100000.
+ */
+public class Benchmarks {
+  public static void main(String[] args) {
+    int[] sizes = {1_000, 100_000};
+
+    if (args.length > 0) {
+      sizes = new int[args.length];
+      for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+    }
+
+    for (int size : sizes) {
+      HashTableBenchmarks.run(size);
+      QueueBenchmarks.run(size);
+      DynamicArrayBenchmarks.run(size);
+      LinkedListBenchmarks.run(size);
+      HeapBenchmarks.run(size);
+      TreeBenchmarks.run(size);
+      TrieBenchmarks.run(size);
+      GraphBenchmarks.run(size);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+
+/**
+ * Append, insert, and remove benchmarks for {@link DynamicArray}, against {@link ArrayList}.
+ *
+ * <p>Appends start from the default capacity, so they include growing. Inserts and removes happen
+ * in the middle of an array of n elements, so each one shifts n/2 elements.
+ */
+public class DynamicArrayBenchmarks {
+  /** The number of middle inserts or removes per run. */
+  static final int EDITS = 1000;
+
+  public static void run(int size) {
+    Integer[] elements = new Integer[size];
+    for (int i = 0; i < size; i++) elements[i] = i;
+
+    String suffix = " (n=" + size + ")";
+
+    Benchmark.run(
+        "DynamicArray append" + suffix,
+        size,
+        () -> new DynamicArray<Integer>(),
+        array -> {
+          for (Integer element : elements) array.append(element);
+          Benchmark.consume(array);
+        });
+    Benchmark.run(
+        "DynamicArray insert middle" + suffix,
+        EDITS,
+        () -> filledDynamicArray(elements),
+        array -> {
+          for (int i = 0; i < EDITS; i++) array.insert(elements[i], array.getLength() / 2);
+          Benchmark.consume(array);
+        });
+    Benchmark.run(
+        "DynamicArray remove middle" + suffix,
+        EDITS,
+        () -> filledDynamicArray(elements),
+        array -> {
+          for (int i = 0; i < EDITS && !array.isEmpty(); i++) array.remove(array.getLength() / 2);
+          Benchmark.consume(array);
+        });
+
+    Benchmark.run(
+        "java.util.ArrayList add" + suffix,
+        size,
+        () -> new ArrayList<Integer>(),
+        list -> {
+          for (Integer element : elements) list.add(element);
+          Benchmark.consume(list);
+        });
+    Benchmark.run(
+        "java.util.ArrayList add middle" + suffix,
+        EDITS,
+        () -> filledArrayList(elements),
+        list -> {
+          for (int i = 0; i < EDITS; i++) list.add(list.size() / 2, elements[i]);
+          Benchmark.consume(list);
+        });
+    Benchmark.run(
+        "java.util.ArrayList remove middle" + suffix,
+        EDITS,
+        () -> filledArrayList(elements),
+        list -> {
+          for (int i = 0; i < EDITS && !list.isEmpty(); i++) list.remove(list.size() / 2);
+          Benchmark.consume(list);
+        });
+  }
+
+  private static DynamicArray<Integer> filledDynamicArray(Integer[] elements) {
+    DynamicArray<Integer> array = new DynamicArray<Integer>(elements.length + EDITS);
+    for (Integer element : elements) array.append(element);
+    return array;
+  }
+
+  private static ArrayList<Integer> filledArrayList(Integer[] elements) {
+    ArrayList<Integer> list = new ArrayList<Integer>(elements.length + EDITS);
+    for (Integer element : elements) list.add(element);
+    return list;
+  }
+}
@@ -0,0 +1,112 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Traversal benchmarks for {@link Graph}, against the same algorithms over {@code java.util}
+ * adjacency lists.
+ *
+ * <p>The graph is random, with n vertices and {@code DEGREE * n} directed edges. One run is a full
+ * traversal from vertex 0, reported per edge.
+ */
+public class GraphBenchmarks {
+  /** The average out-degree of the random graph. */
+  static final int DEGREE = 8;
+
+  public static void run(int size) {
+    java.util.Random random = new java.util.Random(42);
+    IntDynamicArray sources = new IntDynamicArray(DEGREE * size);
+    IntDynamicArray targets = new IntDynamicArray(DEGREE * size);
+    LongDynamicArray weights = new LongDynamicArray(DEGREE * size);
+    ArrayList<ArrayList<long[]>> lists = new ArrayList<ArrayList<long[]>>();
+
+    for (int i = 0; i < size; i++) lists.add(new ArrayList<long[]>());
+
+    for (int i = 0; i < DEGREE * size; i++) {
+      int source = random.nextInt(size);
+      int target = random.nextInt(size);
+      long weight = 1 + random.nextInt(100);
+
+      sources.append(source);
+      targets.append(target);
+      weights.append(weight);
+      lists.get(source).add(new long[] {target, weight});
+    }
+
+    Graph graph = new Graph(size, sources, targets, weights);
+    int edges = graph.getEdgeCount();
+    String suffix = " (n=" + size + ")";
+
+    Benchmark.run(
+        "BreadthFirstSearch" + suffix,
+        edges,
+        () -> new BreadthFirstSearch(graph),
+        search -> Benchmark.consume(search.run(0)));
+    Benchmark.run(
+        "ShortestPaths" + suffix,
+        edges,
+        () -> new ShortestPaths(graph),
+        paths -> {
+          paths.run(0);
+          Benchmark.consume(paths.getDistance(size - 1));
+        });
+
+    Benchmark.run(
+        "java.util BFS" + suffix,
+        edges,
+        () -> lists,
+        adjacency -> {
+          int[] distances = new int[size];
+          Arrays.fill(distances, -1);
+          distances[0] = 0;
+
+          ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+          queue.offer(0);
+
+          while (!queue.isEmpty()) {
+            int vertex = queue.poll();
+
+            for (long[] edge : adjacency.get(vertex)) {
+              if (distances[(int) edge[0]] == -1) {
+                distances[(int) edge[0]] = distances[vertex] + 1;
+                queue.offer((int) edge[0]);
+              }
+            }
+          }
+
+          Benchmark.consume(distances);
+        });
+    Benchmark.run(
+        "java.util Dijkstra" + suffix,
+        edges,
+        () -> lists,
+        adjacency -> {
+          long[] distances = new long[size];
+          Arrays.fill(distances, Long.MAX_VALUE);
+          distances[0] = 0;
+
+          java.util.PriorityQueue<long[]> queue =
+              new java.util.PriorityQueue<long[]>((a, b) -> Long.compare(a[0], b[0]));
+          queue.offer(new long[] {0, 0});
+
+          // Without decrease-key, stale entries are skipped when dequeued.
+          while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int vertex = (int) entry[1];
+
+            if (entry[0] > distances[vertex]) continue;
+
+            for (long[] edge : adjacency.get(vertex)) {
+              long distance = entry[0] + edge[1];
+
+              if (distance < distances[(int) edge[0]]) {
+                distances[(int) edge[0]] = distance;
+                queue.offer(new long[] {distance, edge[0]});
+              }
+            }
+          }
+
+          Benchmark.consume(distances[size - 1]);
+        });
+  }
+}
@@ -0,0 +1,206 @@
+import java.util.HashMap;
+
+/**
+ * Put, get (hit and miss), and remove benchmarks for the hash tables, against {@link HashMap}.
+ *
+ * <p>Keys are distinct pseudo-random integers, and misses are keys that were never put.
+ */
+public class HashTableBenchmarks {
+  public static void run(int size) {
+    Integer[] keys = new Integer[size];
+    Integer[] misses = new Integer[size];
+    int[] intKeys = new int[size];
+    int[] intMisses = new int[size];
+
+    // fmix32 is a bijection, so the keys are distinct and never collide with the misses.
+    for (int i = 0; i < size; i++) {
+      keys[i] = intKeys[i] = HashFunctions.fmix32(i);
+      misses[i] = intMisses[i] = HashFunctions.fmix32(i + size);
+    }
+
+    String suffix = " (n=" + size + ")";
+
+    // HashTable
+
+    HashTable<Integer, Integer> hashTable = new HashTable<Integer, Integer>();
+    for (Integer key : keys) hashTable.put(key, key);
+
+    Benchmark.run(
+        "HashTable put" + suffix,
+        size,
+        () -> new HashTable<Integer, Integer>(),
+        table -> {
+          for (Integer key : keys) table.put(key, key);
+          Benchmark.consume(table);
+        });
+    Benchmark.run(
+        "HashTable get hit" + suffix,
+        size,
+        () -> hashTable,
+        table -> {
+          for (Integer key : keys) Benchmark.consume(table.get(key));
+        });
+    Benchmark.run(
+        "HashTable get miss" + suffix,
+        size,
+        () -> hashTable,
+        table -> {
+          for (Integer key : misses) Benchmark.consume(table.get(key));
+        });
+    Benchmark.run(
+        "HashTable remove" + suffix,
+        size,
+        () -> {
+          HashTable<Integer, Integer> table = new HashTable<Integer, Integer>();
+          table.putAll(keys, keys);
+          return table;
+        },
+        table -> {
+          for (Integer key : keys) Benchmark.consume(table.remove(key));
+        });
+
+    // OpenAddressingHashTable
+
+    OpenAddressingHashTable<Integer, Integer> openTable =
+        new OpenAddressingHashTable<Integer, Integer>();
+    for (Integer key : keys) openTable.put(key, key);
+
+    Benchmark.run(
+        "OpenAddressingHashTable put" + suffix,
+        size,
+        () -> new OpenAddressingHashTable<Integer, Integer>(),
+        table -> {
+          for (Integer key : keys) table.put(key, key);
+          Benchmark.consume(table);
+        });
+    Benchmark.run(
+        "OpenAddressingHashTable get hit" + suffix,
+        size,
+        () -> openTable,
+        table -> {
+          for (Integer key : keys) Benchmark.consume(table.get(key));
+        });
+    Benchmark.run(
+        "OpenAddressingHashTable get miss" + suffix,
+        size,
+        () -> openTable,
+        table -> {
+          for (Integer key : misses) Benchmark.consume(table.get(key));
+        });
+    Benchmark.run(
+        "OpenAddressingHashTable remove" + suffix,
+        size,
+        () -> {
+          OpenAddressingHashTable<Integer, Integer> table =
+              new OpenAddressingHashTable<Integer, Integer>();
+          for (Integer key : keys) table.put(key, key);
+          return table;
+        },
+        table -> {
+          for (Integer key : keys) Benchmark.consume(table.remove(key));
+        });
+
+    // IntHashTable
+
+    IntHashTable<Integer> intTable = new IntHashTable<Integer>();
+    for (int i = 0; i < size; i++) intTable.put(intKeys[i], keys[i]);
+
+    Benchmark.run(
+        "IntHashTable put" + suffix,
+        size,
+        () -> new IntHashTable<Integer>(),
+        table -> {
+          for (int i = 0; i < size; i++) table.put(intKeys[i], keys[i]);
+          Benchmark.consume(table);
+        });
+    Benchmark.run(
+        "IntHashTable get hit" + suffix,
+        size,
+        () -> intTable,
+        table -> {
+          for (int key : intKeys) Benchmark.consume(table.get(key));
+        });
+    Benchmark.run(
+        "IntHashTable get miss" + suffix,
+        size,
+        () -> intTable,
+        table -> {
+          for (int key : intMisses) Benchmark.consume(table.get(key));
+        });
+    Benchmark.run(
+        "IntHashTable remove" + suffix,
+        size,
+        () -> {
+          IntHashTable<Integer> table = new IntHashTable<Integer>();
+          for (int i = 0; i < size; i++) table.put(intKeys[i], keys[i]);
+          return table;
+        },
+        table -> {
+          for (int key : intKeys) Benchmark.consume(table.remove(key));
+        });
+
+    // ConcurrentHashTable (single-threaded)
+
+    ConcurrentHashTable<Integer, Integer> concurrentTable =
+        new ConcurrentHashTable<Integer, Integer>();
+    for (Integer key : keys) concurrentTable.put(key, key);
+
+    Benchmark.run(
+        "ConcurrentHashTable put" + suffix,
+        size,
+        () -> new ConcurrentHashTable<Integer, Integer>(),
+        table -> {
+          for (Integer key : keys) table.put(key, key);
+          Benchmark.consume(table);
+        });
+    Benchmark.run(
+        "ConcurrentHashTable get hit" + suffix,
+        size,
+        () -> concurrentTable,
+        table -> {
+          for (Integer key : keys) Benchmark.consume(table.get(key));
+        });
+    Benchmark.run(
+        "ConcurrentHashTable get miss" + suffix,
+        size,
+        () -> concurrentTable,
+        table -> {
+          for (Integer key : misses) Benchmark.consume(table.get(key));
+        });
+
+    // java.util.HashMap
+
+    HashMap<Integer, Integer> hashMap = new HashMap<Integer, Integer>();
+    for (Integer key : keys) hashMap.put(key, key);
+
+    Benchmark.run(
+        "java.util.HashMap put" + suffix,
+        size,
+        () -> new HashMap<Integer, Integer>(),
+        map -> {
+          for (Integer key : keys) map.put(key, key);
+          Benchmark.consume(map);
+        });
+    Benchmark.run(
+        "java.util.HashMap get hit" + suffix,
+        size,
+        () -> hashMap,
+        map -> {
+          for (Integer key : keys) Benchmark.consume(map.get(key));
+        });
+    Benchmark.run(
+        "java.util.HashMap get miss" + suffix,
+        size,
+        () -> hashMap,
+        map -> {
+          for (Integer key : misses) Benchmark.consume(map.get(key));
+        });
+    Benchmark.run(
+        "java.util.HashMap remove" + suffix,
+        size,
+        () -> new HashMap<Integer, Integer>(hashMap),
+        map -> {
+          for (Integer key : keys) Benchmark.consume(map.remove(key));
+        });
+  }
+}
@@ -0,0 +1,50 @@
+import java.util.Comparator;
+
+/**
+ * Enqueue/dequeue throughput of the heaps, against {@link java.util.PriorityQueue}.
+ *
+ * <p>Each run enqueues n elements in random order, then dequeues them all, so one run is 2n
+ * operations.
+ */
+public class HeapBenchmarks {
+  public static void run(int size) {
+    Integer[] elements = new Integer[size];
+    java.util.Random random = new java.util.Random(42);
+    for (int i = 0; i < size; i++) elements[i] = random.nextInt();
+
+    String suffix = " (n=" + size + ")";
+
+    Benchmark.run(
+        "DaryHeap d=2 enqueue/dequeue" + suffix,
+        2 * size,
+        () -> new DaryHeap<Integer>(2, Comparator.naturalOrder()),
+        heap -> {
+          for (Integer element : elements) heap.enqueue(element);
+          for (int i = 0; i < size; i++) Benchmark.consume(heap.dequeue());
+        });
+    Benchmark.run(
+        "DaryHeap d=4 enqueue/dequeue" + suffix,
+        2 * size,
+        () -> new DaryHeap<Integer>(4, Comparator.naturalOrder()),
+        heap -> {
+          for (Integer element : elements) heap.enqueue(element);
+          for (int i = 0; i < size; i++) Benchmark.consume(heap.dequeue());
+        });
+    Benchmark.run(
+        "LongDaryHeap d=4 enqueue/dequeue" + suffix,
+        2 * size,
+        () -> new LongDaryHeap<Integer>(4),
+        heap -> {
+          for (Integer element : elements) heap.enqueue(element, element);
+          for (int i = 0; i < size; i++) Benchmark.consume(heap.dequeue());
+        });
+    Benchmark.run(
+        "java.util.PriorityQueue offer/poll" + suffix,
+        2 * size,
+        () -> new java.util.PriorityQueue<Integer>(),
+        queue -> {
+          for (Integer element : elements) queue.offer(element);
+          for (int i = 0; i < size; i++) Benchmark.consume(queue.poll());
+        });
+  }
+}
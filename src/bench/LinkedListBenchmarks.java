@@ -0,0 +1,65 @@
+/**
+ * Positional get and insert benchmarks for {@link UnrolledLinkedList}, against {@link LinkedList}.
+ *
+ * <p>Gets and inserts happen in the middle of a list of n elements, so {@code LinkedList} walks
+ * n/2 nodes for each one.
+ */
+public class LinkedListBenchmarks {
+  /** The number of middle gets or inserts per run. */
+  static final int EDITS = 1000;
+
+  public static void run(int size) {
+    Integer[] elements = new Integer[size];
+    for (int i = 0; i < size; i++) elements[i] = i;
+
+    String suffix = " (n=" + size + ")";
+
+    Benchmark.run(
+        "UnrolledLinkedList get middle" + suffix,
+        EDITS,
+        () -> filledUnrolledLinkedList(elements),
+        list -> {
+          int sum = 0;
+          for (int i = 0; i < EDITS; i++) sum += list.get(list.getLength() / 2 + i % 2);
+          Benchmark.consume(sum);
+        });
+    Benchmark.run(
+        "UnrolledLinkedList insert middle" + suffix,
+        EDITS,
+        () -> filledUnrolledLinkedList(elements),
+        list -> {
+          for (int i = 0; i < EDITS; i++) list.insert(elements[i], list.getLength() / 2);
+          Benchmark.consume(list);
+        });
+
+    Benchmark.run(
+        "LinkedList get middle" + suffix,
+        EDITS,
+        () -> filledLinkedList(elements),
+        list -> {
+          int sum = 0;
+          for (int i = 0; i < EDITS; i++) sum += list.get(list.getLength() / 2 + i % 2);
+          Benchmark.consume(sum);
+        });
+    Benchmark.run(
+        "LinkedList insert middle" + suffix,
+        EDITS,
+        () -> filledLinkedList(elements),
+        list -> {
+          for (int i = 0; i < EDITS; i++) list.insert(elements[i], list.getLength() / 2);
+          Benchmark.consume(list);
+        });
+  }
+
+  private static UnrolledLinkedList<Integer> filledUnrolledLinkedList(Integer[] elements) {
+    UnrolledLinkedList<Integer> list = new UnrolledLinkedList<Integer>();
+    for (int i = 0; i < elements.length; i++) list.insert(elements[i], i);
+    return list;
+  }
+
+  private static LinkedList<Integer> filledLinkedList(Integer[] elements) {
+    LinkedList<Integer> list = new LinkedList<Integer>();
+    for (int i = elements.length - 1; i >= 0; i--) list.insertAtHead(elements[i]);
+    return list;
+  }
+}
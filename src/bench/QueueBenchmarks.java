@@ -0,0 +1,66 @@
+import java.util.ArrayDeque;
+
+/**
+ * Enqueue/dequeue throughput of the queues and push/pop throughput of the stacks, against {@link
+ * ArrayDeque}.
+ *
+ * <p>Each run fills the structure with n elements, then empties it, so one run is 2n operations.
+ */
+public class QueueBenchmarks {
+  public static void run(int size) {
+    Integer[] elements = new Integer[size];
+    for (int i = 0; i < size; i++) elements[i] = i;
+
+    String suffix = " (n=" + size + ")";
+
+    Benchmark.run(
+        "ArrayQueue enqueue/dequeue" + suffix,
+        2 * size,
+        () -> new ArrayQueue<Integer>(size),
+        queue -> {
+          for (Integer element : elements) queue.enqueue(element);
+          for (int i = 0; i < size; i++) Benchmark.consume(queue.dequeue());
+        });
+    Benchmark.run(
+        "LinkedQueue enqueue/dequeue" + suffix,
+        2 * size,
+        () -> new LinkedQueue<Integer>(),
+        queue -> {
+          for (Integer element : elements) queue.enqueue(element);
+          for (int i = 0; i < size; i++) Benchmark.consume(queue.dequeue());
+        });
+    Benchmark.run(
+        "java.util.ArrayDeque offer/poll" + suffix,
+        2 * size,
+        () -> new ArrayDeque<Integer>(size),
+        queue -> {
+          for (Integer element : elements) queue.offer(element);
+          for (int i = 0; i < size; i++) Benchmark.consume(queue.poll());
+        });
+
+    Benchmark.run(
+        "ArrayStack push/pop" + suffix,
+        2 * size,
+        () -> new ArrayStack<Integer>(size),
+        stack -> {
+          for (Integer element : elements) stack.push(element);
+          for (int i = 0; i < size; i++) Benchmark.consume(stack.pop());
+        });
+    Benchmark.run(
+        "LinkedStack push/pop" + suffix,
+        2 * size,
+        () -> new LinkedStack<Integer>(),
+        stack -> {
+          for (Integer element : elements) stack.push(element);
+          for (int i = 0; i < size; i++) Benchmark.consume(stack.pop());
+        });
+    Benchmark.run(
+        "java.util.ArrayDeque push/pop" + suffix,
+        2 * size,
+        () -> new ArrayDeque<Integer>(size),
+        stack -> {
+          for (Integer element : elements) stack.push(element);
+          for (int i = 0; i < size; i++) Benchmark.consume(stack.pop());
+        });
+  }
+}
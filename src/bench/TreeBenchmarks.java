@@ -0,0 +1,86 @@
+import java.util.Comparator;
+import java.util.TreeMap;
+
+/**
+ * Lookup and range scan benchmarks for {@link BPlusTree}, against {@link TreeMap}.
+ *
+ * <p>Both maps hold n keys. Lookups are in random order; each range scan reads {@code SCAN} keys
+ * from a random start.
+ */
+public class TreeBenchmarks {
+  /** The number of keys read per range scan. */
+  static final int SCAN = 100;
+
+  public static void run(int size) {
+    Integer[] keys = new Integer[size];
+    java.util.Random random = new java.util.Random(42);
+    for (int i = 0; i < size; i++) keys[i] = random.nextInt(size);
+
+    String suffix = " (n=" + size + ")";
+
+    Benchmark.run(
+        "BPlusTree put" + suffix,
+        size,
+        () -> new BPlusTree<Integer, Integer>(Comparator.naturalOrder()),
+        tree -> {
+          for (Integer key : keys) tree.put(key, key);
+          Benchmark.consume(tree);
+        });
+    Benchmark.run(
+        "BPlusTree get" + suffix,
+        size,
+        () -> filledBPlusTree(size),
+        tree -> {
+          for (Integer key : keys) Benchmark.consume(tree.get(key));
+        });
+    Benchmark.run(
+        "BPlusTree range scan" + suffix,
+        SCAN * 100,
+        () -> filledBPlusTree(size),
+        tree -> {
+          long[] sum = {0};
+          for (int i = 0; i < 100; i++)
+            tree.forEachInRange(keys[i], keys[i] + SCAN, (key, value) -> sum[0] += value);
+          Benchmark.consume(sum[0]);
+        });
+
+    Benchmark.run(
+        "java.util.TreeMap put" + suffix,
+        size,
+        () -> new TreeMap<Integer, Integer>(),
+        tree -> {
+          for (Integer key : keys) tree.put(key, key);
+          Benchmark.consume(tree);
+        });
+    Benchmark.run(
+        "java.util.TreeMap get" + suffix,
+        size,
+        () -> filledTreeMap(size),
+        tree -> {
+          for (Integer key : keys) Benchmark.consume(tree.get(key));
+        });
+    Benchmark.run(
+        "java.util.TreeMap range scan" + suffix,
+        SCAN * 100,
+        () -> filledTreeMap(size),
+        tree -> {
+          long sum = 0;
+          for (int i = 0; i < 100; i++)
+            for (Integer value : tree.subMap(keys[i], keys[i] + SCAN).values()) sum += value;
+          Benchmark.consume(sum);
+        });
+  }
+
+  private static BPlusTree<Integer, Integer> filledBPlusTree(int size) {
+    DynamicArray<Integer> keys = new DynamicArray<Integer>(size);
+    for (int i = 0; i < size; i++) keys.append(i);
+
+    return new BPlusTree<Integer, Integer>(keys, keys, 64, Comparator.naturalOrder());
+  }
+
+  private static TreeMap<Integer, Integer> filledTreeMap(int size) {
+    TreeMap<Integer, Integer> tree = new TreeMap<Integer, Integer>();
+    for (int i = 0; i < size; i++) tree.put(i, i);
+    return tree;
+  }
+}
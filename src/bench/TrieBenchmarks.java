@@ -0,0 +1,78 @@
+/**
+ * Lookup and prefix scan benchmarks for {@link Trie} and {@link FrozenTrie}, against {@link
+ * HashTable} keyed by the same strings.
+ *
+ * <p>Keys are the decimal strings of 0 to n - 1. A prefix scan over the hash table has to check
+ * every key, while the tries only visit the keys that match.
+ */
+public class TrieBenchmarks {
+  public static void run(int size) {
+    String[] keys = new String[size];
+    for (int i = 0; i < size; i++) keys[i] = Integer.toString(i);
+
+    String prefix = Integer.toString(size / 10);
+    String suffix = " (n=" + size + ")";
+    Trie<Integer> trie = new Trie<Integer>();
+    for (int i = 0; i < size; i++) trie.put(keys[i], i);
+
+    Benchmark.run(
+        "Trie put" + suffix,
+        size,
+        () -> new Trie<Integer>(),
+        target -> {
+          for (int i = 0; i < size; i++) target.put(keys[i], i);
+          Benchmark.consume(target);
+        });
+    Benchmark.run(
+        "Trie get" + suffix,
+        size,
+        () -> trie,
+        target -> {
+          for (String key : keys) Benchmark.consume(target.get(key));
+        });
+    Benchmark.run(
+        "FrozenTrie get" + suffix,
+        size,
+        () -> trie.freeze(),
+        target -> {
+          for (String key : keys) Benchmark.consume(target.get(key));
+        });
+    Benchmark.run(
+        "Trie prefix scan" + suffix,
+        1,
+        () -> trie,
+        target -> {
+          long[] sum = {0};
+          target.prefixScan(prefix, (key, value) -> sum[0] += value);
+          Benchmark.consume(sum[0]);
+        });
+
+    Benchmark.run(
+        "HashTable get" + suffix,
+        size,
+        () -> {
+          HashTable<String, Integer> table = new HashTable<String, Integer>();
+          for (int i = 0; i < size; i++) table.put(keys[i], i);
+          return table;
+        },
+        table -> {
+          for (String key : keys) Benchmark.consume(table.get(key));
+        });
+    Benchmark.run(
+        "HashTable prefix scan" + suffix,
+        1,
+        () -> {
+          HashTable<String, Integer> table = new HashTable<String, Integer>();
+          for (int i = 0; i < size; i++) table.put(keys[i], i);
+          return table;
+        },
+        table -> {
+          long[] sum = {0};
+          table.forEach(
+              (key, value) -> {
+                if (key.startsWith(prefix)) sum[0] += value;
+              });
+          Benchmark.consume(sum[0]);
+        });
+  }
+}
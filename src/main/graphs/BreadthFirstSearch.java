@@ -0,0 +1,186 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A direction-optimizing, parallel breadth-first search over a {@link Graph}.
+ *
+ * <p>The search expands one level at a time, and picks the cheaper direction for each level:
+ *
+ * <ul>
+ *   <li>Top-down: every vertex of the frontier claims its unvisited neighbors. This is cheap while
+ *       the frontier is small.
+ *   <li>Bottom-up: every unvisited vertex looks for a parent in the frontier among its incoming
+ *       edges, and stops at the first one. Once the frontier holds a large share of the edges, most
+ *       vertices find a parent after a few checks, and this examines far fewer edges.
+ * </ul>
+ *
+ * <p>The search switches to bottom-up when the edges leaving the frontier outnumber the edges left
+ * to explore divided by {@link #ALPHA}, and back to top-down when the frontier holds fewer than
+ * {@code V / BETA} vertices. A vertex is in the frontier exactly when its distance is the current
+ * depth, so the bottom-up step needs no separate frontier bitmap.
+ *
+ * <p>Levels with more than {@link #PARALLEL_VERTICES} vertices to process are split into ranges of
+ * that many and processed in parallel on the common {@code ForkJoinPool}. Vertices are claimed with
+ * a compare-and-set on their distance, so each one joins the next frontier once.
+ *
+ * <p>A search holds its scratch arrays and can be run any number of times; runs allocate nothing
+ * except the fork/join tasks of parallel levels.
+ */
+public class BreadthFirstSearch {
+  /** The number of vertices per parallel task. */
+  static final int PARALLEL_VERTICES = 1 << 12;
+  /** Switch to bottom-up when the frontier has more than 1 / ALPHA of the unexplored edges. */
+  static final int ALPHA = 14;
+  /** Switch back to top-down when the frontier has fewer than 1 / BETA of the vertices. */
+  static final int BETA = 24;
+
+  final Graph graph;
+  /** The graph with every edge reversed, for the bottom-up steps. */
+  final Graph transpose;
+  /** The distance of each vertex from the source, or -1 if it was not reached. */
+  final AtomicIntegerArray distances;
+  /** The vertices at the current depth. */
+  int[] frontier;
+  int frontierLength;
+  /** The vertices found for the next depth, appended by all tasks. */
+  int[] next;
+  final AtomicInteger nextLength = new AtomicInteger();
+  /** The depth of the current frontier. */
+  int depth;
+
+  /**
+   * Prepares a search over the specified graph, building its transpose if needed.
+   *
+   * @param graph
+   */
+  public BreadthFirstSearch(Graph graph) {
+    this.graph = graph;
+    this.transpose = graph.transpose();
+    this.distances = new AtomicIntegerArray(graph.getVertexCount());
+    this.frontier = new int[graph.getVertexCount()];
+    this.next = new int[graph.getVertexCount()];
+  }
+
+  /** Expands a range of the frontier (top-down) or of the vertices (bottom-up) by one level. */
+  @SuppressWarnings("serial")
+  final class Step extends RecursiveAction {
+    final boolean bottomUp;
+    final int from;
+    final int to;
+
+    Step(boolean bottomUp, int from, int to) {
+      this.bottomUp = bottomUp;
+      this.from = from;
+      this.to = to;
+    }
+
+    protected void compute() {
+      if (this.to - this.from <= PARALLEL_VERTICES) {
+        step(this.bottomUp, this.from, this.to);
+        return;
+      }
+
+      int middle = (this.from + this.to) >>> 1;
+
+      invokeAll(
+          new Step(this.bottomUp, this.from, middle), new Step(this.bottomUp, middle, this.to));
+    }
+  }
+
+  private void step(boolean bottomUp, int from, int to) {
+    int[] offsets = bottomUp ? this.transpose.offsets : this.graph.offsets;
+    int[] targets = bottomUp ? this.transpose.targets : this.graph.targets;
+
+    if (bottomUp) {
+      for (int vertex = from; vertex < to; vertex++) {
+        if (this.distances.get(vertex) != -1) continue;
+
+        for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+          if (this.distances.get(targets[edge]) == this.depth) {
+            // Only this task looks at this vertex, so no compare-and-set is needed.
+            this.distances.set(vertex, this.depth + 1);
+            this.next[this.nextLength.getAndIncrement()] = vertex;
+            break;
+          }
+        }
+      }
+    } else {
+      for (int i = from; i < to; i++) {
+        int vertex = this.frontier[i];
+
+        for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+          int target = targets[edge];
+
+          if (this.distances.get(target) == -1
+              && this.distances.compareAndSet(target, -1, this.depth + 1))
+            this.next[this.nextLength.getAndIncrement()] = target;
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes the distance of every vertex from the specified source, in number of edges.
+   *
+   * @param source
+   * @return the number of vertices reached, the source included
+   * @throws IllegalArgumentException if the source is not a vertex of the graph.
+   */
+  public int run(int source) {
+    this.graph.checkVertex(source);
+
+    int vertexCount = this.graph.getVertexCount();
+
+    for (int vertex = 0; vertex < vertexCount; vertex++) this.distances.set(vertex, -1);
+
+    this.distances.set(source, 0);
+    this.frontier[0] = source;
+    this.frontierLength = 1;
+    this.depth = 0;
+
+    long unexploredEdges = this.graph.getEdgeCount();
+    boolean bottomUp = false;
+    int reached = 1;
+
+    while (this.frontierLength > 0) {
+      long frontierEdges = 0;
+
+      for (int i = 0; i < this.frontierLength; i++)
+        frontierEdges += this.graph.getDegree(this.frontier[i]);
+
+      unexploredEdges -= frontierEdges;
+
+      if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) bottomUp = true;
+      else if (bottomUp && this.frontierLength < vertexCount / BETA) bottomUp = false;
+
+      int length = bottomUp ? vertexCount : this.frontierLength;
+      this.nextLength.set(0);
+
+      if (length > PARALLEL_VERTICES)
+        ForkJoinPool.commonPool().invoke(new Step(bottomUp, 0, length));
+      else this.step(bottomUp, 0, length);
+
+      int[] frontier = this.frontier;
+      this.frontier = this.next;
+      this.next = frontier;
+      this.frontierLength = this.nextLength.get();
+      this.depth++;
+
+      reached += this.frontierLength;
+    }
+
+    return reached;
+  }
+
+  /**
+   * Returns the distance of a vertex from the source of the last run.
+   *
+   * @param vertex
+   * @return the number of edges on a shortest path from the source, or -1 if it was not reached
+   */
+  public int getDistance(int vertex) {
+    return this.distances.get(vertex);
+  }
+}
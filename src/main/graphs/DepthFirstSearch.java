@@ -0,0 +1,177 @@
+/**
+ * An iterative depth-first search over a {@link Graph}, with cycle detection and topological
+ * sorting for directed graphs.
+ *
+ * <p>Instead of recursing, the search keeps the current path in an explicit stack of vertices,
+ * along with the next edge to follow from each of them, so it cannot overflow the call stack on
+ * deep graphs. Both stacks are {@code int[]}s sized for the whole graph, so no vertex is boxed.
+ *
+ * <p>A search holds its scratch arrays and can be run any number of times without allocating. A
+ * depth-first search is inherently sequential, so it runs on the calling thread.
+ *
+ * <p>Operations with their time complexities are:
+ *
+ * <ul>
+ *   <li><code>visit(int)</code>: O(V + E) in total over all calls
+ *   <li><code>visitAll()</code>: O(V + E)
+ *   <li><code>topologicalSort()</code>: O(V + E)
+ * </ul>
+ */
+public class DepthFirstSearch {
+  static final byte UNVISITED = 0;
+  static final byte ON_PATH = 1;
+  static final byte DONE = 2;
+
+  final Graph graph;
+  /** The state of each vertex. */
+  final byte[] states;
+  /** The vertices on the current path, from the root of the search. */
+  final int[] path;
+  /** The next edge to follow from each vertex of the path, at the same indices. */
+  final int[] edges;
+  /** The vertices in the order they were first visited. */
+  final int[] preorder;
+  int preorderLength;
+  /** The vertices in the order they were finished. */
+  final int[] postorder;
+  int postorderLength;
+  /** Whether an edge back to a vertex on the path was found since the last reset. */
+  boolean cycle;
+
+  public DepthFirstSearch(Graph graph) {
+    this.graph = graph;
+    this.states = new byte[graph.getVertexCount()];
+    this.path = new int[graph.getVertexCount()];
+    this.edges = new int[graph.getVertexCount()];
+    this.preorder = new int[graph.getVertexCount()];
+    this.postorder = new int[graph.getVertexCount()];
+  }
+
+  /** Marks every vertex as unvisited and clears the orders. */
+  public void reset() {
+    for (int vertex = 0; vertex < this.states.length; vertex++) this.states[vertex] = UNVISITED;
+
+    this.preorderLength = 0;
+    this.postorderLength = 0;
+    this.cycle = false;
+  }
+
+  /**
+   * Visits every vertex reachable from the specified one that was not visited since the last
+   * reset, appending them to the preorder and the postorder.
+   *
+   * @param source
+   * @return the number of vertices visited
+   * @throws IllegalArgumentException if the source is not a vertex of the graph.
+   */
+  public int visit(int source) {
+    this.graph.checkVertex(source);
+
+    if (this.states[source] != UNVISITED) return 0;
+
+    int start = this.preorderLength;
+    int length = 0;
+
+    this.push(source, length++);
+
+    while (length > 0) {
+      int vertex = this.path[length - 1];
+      int edge = this.edges[length - 1];
+
+      if (edge == this.graph.offsets[vertex + 1]) {
+        // Every edge was followed: the vertex is finished.
+        this.states[vertex] = DONE;
+        this.postorder[this.postorderLength++] = vertex;
+        length--;
+        continue;
+      }
+
+      this.edges[length - 1]++;
+
+      int target = this.graph.targets[edge];
+
+      if (this.states[target] == UNVISITED) this.push(target, length++);
+      else if (this.states[target] == ON_PATH) this.cycle = true;
+    }
+
+    return this.preorderLength - start;
+  }
+
+  private void push(int vertex, int index) {
+    this.states[vertex] = ON_PATH;
+    this.preorder[this.preorderLength++] = vertex;
+    this.path[index] = vertex;
+    this.edges[index] = this.graph.offsets[vertex];
+  }
+
+  /**
+   * Resets the search, then visits every vertex, starting new trees at unvisited vertices in
+   * increasing order.
+   */
+  public void visitAll() {
+    this.reset();
+
+    for (int vertex = 0; vertex < this.states.length; vertex++) this.visit(vertex);
+  }
+
+  public int getPreorderLength() {
+    return this.preorderLength;
+  }
+
+  /**
+   * Returns the vertex visited at the specified position in the preorder.
+   *
+   * @param index
+   * @return the index-th vertex to be visited
+   */
+  public int getPreorder(int index) {
+    if (index < 0 || index >= this.preorderLength) throw new IndexOutOfBoundsException();
+
+    return this.preorder[index];
+  }
+
+  public int getPostorderLength() {
+    return this.postorderLength;
+  }
+
+  /**
+   * Returns the vertex finished at the specified position in the postorder.
+   *
+   * @param index
+   * @return the index-th vertex to be finished
+   */
+  public int getPostorder(int index) {
+    if (index < 0 || index >= this.postorderLength) throw new IndexOutOfBoundsException();
+
+    return this.postorder[index];
+  }
+
+  /**
+   * Returns whether the visited part of the directed graph has a cycle, which is when the search
+   * follows an edge back to a vertex on the current path.
+   *
+   * @return {@code true} if a cycle was found since the last reset
+   */
+  public boolean hasCycle() {
+    return this.cycle;
+  }
+
+  /**
+   * Orders the vertices so that every edge goes from an earlier vertex to a later one, as the
+   * reverse of the postorder of a full search.
+   *
+   * @return the vertices in topological order, or {@code null} if the graph has a cycle
+   */
+  public int[] topologicalSort() {
+    this.visitAll();
+
+    if (this.cycle) return null;
+
+    int[] order = new int[this.postorderLength];
+
+    for (int i = 0; i < this.postorderLength; i++)
+      order[i] = this.postorder[this.postorderLength - 1 - i];
+
+    return order;
+  }
+}
@@ -0,0 +1,206 @@
+/**
+ * A directed graph stored in compressed sparse row (CSR) form.
+ *
+ * <p>Vertices are the integers 0 to {@code vertexCount - 1}. The edges are sorted by source and
+ * their targets are stored back to back in one {@code int[]}: the edges leaving vertex v are the
+ * indices {@code offsets[v]} (inclusive) to {@code offsets[v + 1]} (exclusive) of {@code targets}.
+ * Walking the neighbors of a vertex is therefore a scan of a contiguous array, with no object per
+ * vertex or per edge. Edges may carry a {@code long} weight, stored at the same indices.
+ *
+ * <p>The graph is immutable once built. Undirected graphs are stored with each edge in both
+ * directions.
+ *
+ * <p>Operations with their time complexities are:
+ *
+ * <ul>
+ *   <li><code>Graph(int, IntDynamicArray, IntDynamicArray, LongDynamicArray)</code>: O(V + E)
+ *   <li><code>getDegree(int)</code>: O(1)
+ *   <li><code>transpose()</code>: O(V + E) the first time, then O(1)
+ * </ul>
+ *
+ * @see BreadthFirstSearch
+ * @see DepthFirstSearch
+ * @see ShortestPaths
+ * @see StronglyConnectedComponents
+ * @see UnionFind
+ */
+public class Graph {
+  final int vertexCount;
+  /**
+   * The index in {@code targets} of the first edge of each vertex, plus the edge count at the end.
+   */
+  final int[] offsets;
+  /** The target of each edge, grouped by source. */
+  final int[] targets;
+  /** The weight of each edge, or {@code null} if the graph is unweighted. */
+  final long[] weights;
+  /** The graph with every edge reversed, built the first time it is needed. */
+  Graph transpose;
+
+  /**
+   * Builds an unweighted graph from a list of edges.
+   *
+   * @param vertexCount
+   * @param sources the source of each edge
+   * @param targets the target of each edge, at the same indices as their sources
+   * @throws IllegalArgumentException if the vertex count is negative, the arrays have different
+   *     lengths, or an edge has a vertex outside the graph.
+   */
+  public Graph(int vertexCount, IntDynamicArray sources, IntDynamicArray targets) {
+    this(vertexCount, sources, targets, null);
+  }
+
+  /**
+   * Builds a graph from a list of edges.
+   *
+   * <p>The edges are grouped by source with a counting sort, keeping their order within each
+   * source.
+   *
+   * @param vertexCount
+   * @param sources the source of each edge
+   * @param targets the target of each edge, at the same indices as their sources
+   * @param weights the weight of each edge, or {@code null} for an unweighted graph
+   * @throws IllegalArgumentException if the vertex count is negative, the arrays have different
+   *     lengths, or an edge has a vertex outside the graph.
+   */
+  public Graph(
+      int vertexCount, IntDynamicArray sources, IntDynamicArray targets, LongDynamicArray weights) {
+    if (vertexCount < 0) throw new IllegalArgumentException("Illegal vertex count: " + vertexCount);
+
+    int edgeCount = sources.getLength();
+
+    if (targets.getLength() != edgeCount)
+      throw new IllegalArgumentException("Illegal targets length: " + targets.getLength());
+    if (weights != null && weights.getLength() != edgeCount)
+      throw new IllegalArgumentException("Illegal weights length: " + weights.getLength());
+
+    this.vertexCount = vertexCount;
+    this.offsets = new int[vertexCount + 1];
+    this.targets = new int[edgeCount];
+    this.weights = weights == null ? null : new long[edgeCount];
+
+    for (int edge = 0; edge < edgeCount; edge++) {
+      this.checkVertex(sources.get(edge));
+      this.checkVertex(targets.get(edge));
+
+      this.offsets[sources.get(edge) + 1]++;
+    }
+
+    for (int vertex = 0; vertex < vertexCount; vertex++)
+      this.offsets[vertex + 1] += this.offsets[vertex];
+
+    // The next free index of each source, starting at its first edge.
+    int[] cursors = new int[vertexCount];
+    System.arraycopy(this.offsets, 0, cursors, 0, vertexCount);
+
+    for (int edge = 0; edge < edgeCount; edge++) {
+      int index = cursors[sources.get(edge)]++;
+
+      this.targets[index] = targets.get(edge);
+      if (weights != null) this.weights[index] = weights.get(edge);
+    }
+  }
+
+  private Graph(int vertexCount, int[] offsets, int[] targets, long[] weights) {
+    this.vertexCount = vertexCount;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+  }
+
+  public int getVertexCount() {
+    return this.vertexCount;
+  }
+
+  public int getEdgeCount() {
+    return this.targets.length;
+  }
+
+  public boolean isWeighted() {
+    return this.weights != null;
+  }
+
+  void checkVertex(int vertex) {
+    if (vertex < 0 || vertex >= this.vertexCount)
+      throw new IllegalArgumentException("Illegal vertex: " + vertex);
+  }
+
+  /**
+   * Returns the number of edges leaving the specified vertex.
+   *
+   * @param vertex
+   * @return the out-degree of the vertex
+   */
+  public int getDegree(int vertex) {
+    return this.offsets[vertex + 1] - this.offsets[vertex];
+  }
+
+  /**
+   * Returns the first edge leaving the specified vertex. The edges of the vertex are the indices
+   * from this one (inclusive) to {@link #getEdgeEnd(int)} (exclusive).
+   *
+   * @param vertex
+   * @return the index of the first edge of the vertex
+   */
+  public int getFirstEdge(int vertex) {
+    return this.offsets[vertex];
+  }
+
+  /**
+   * Returns the index after the last edge leaving the specified vertex.
+   *
+   * @param vertex
+   * @return the index after the last edge of the vertex
+   */
+  public int getEdgeEnd(int vertex) {
+    return this.offsets[vertex + 1];
+  }
+
+  public int getTarget(int edge) {
+    return this.targets[edge];
+  }
+
+  /**
+   * Returns the weight of the specified edge.
+   *
+   * @param edge
+   * @return the weight of the edge, or 1 if the graph is unweighted
+   */
+  public long getWeight(int edge) {
+    return this.weights == null ? 1 : this.weights[edge];
+  }
+
+  /**
+   * Returns the graph with the same vertices and every edge reversed, with the same weights.
+   *
+   * @return the transpose of this graph
+   */
+  public Graph transpose() {
+    if (this.transpose != null) return this.transpose;
+
+    int[] offsets = new int[this.vertexCount + 1];
+    int[] sources = new int[this.targets.length];
+    long[] weights = this.weights == null ? null : new long[this.weights.length];
+
+    for (int target : this.targets) offsets[target + 1]++;
+
+    for (int vertex = 0; vertex < this.vertexCount; vertex++)
+      offsets[vertex + 1] += offsets[vertex];
+
+    int[] cursors = new int[this.vertexCount];
+    System.arraycopy(offsets, 0, cursors, 0, this.vertexCount);
+
+    for (int source = 0; source < this.vertexCount; source++) {
+      for (int edge = this.offsets[source]; edge < this.offsets[source + 1]; edge++) {
+        int index = cursors[this.targets[edge]]++;
+
+        sources[index] = source;
+        if (weights != null) weights[index] = this.weights[edge];
+      }
+    }
+
+    this.transpose = new Graph(this.vertexCount, offsets, sources, weights);
+    this.transpose.transpose = this;
+    return this.transpose;
+  }
+}
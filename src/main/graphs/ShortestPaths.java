@@ -0,0 +1,96 @@
+/**
+ * Single-source shortest paths over a {@link Graph} with non-negative edge weights, using
+ * Dijkstra's algorithm.
+ *
+ * <p>Unsettled vertices are kept in a {@link LongIndexedPriorityQueue} keyed by their tentative
+ * distance, so relaxing an edge lowers the priority of the target in place in O(log V) instead of
+ * queuing a duplicate entry, and priorities are compared as primitive {@code long}s. Unweighted
+ * graphs use a weight of 1 per edge.
+ *
+ * <p>Shortest paths are computed in O((V + E) log V). The queue and the result arrays are kept
+ * between runs, so a run allocates nothing. Dijkstra's algorithm settles one vertex at a time, so
+ * it runs on the calling thread.
+ */
+public class ShortestPaths {
+  /** The distance of vertices that are not reachable from the source. */
+  public static final long UNREACHABLE = Long.MAX_VALUE;
+
+  final Graph graph;
+  /** The shortest distance to each vertex, or {@link #UNREACHABLE}. */
+  final long[] distances;
+  /** The previous vertex on a shortest path to each vertex, or -1 for the source or unreached. */
+  final int[] parents;
+  final LongIndexedPriorityQueue queue;
+
+  /**
+   * Prepares the shortest paths over the specified graph.
+   *
+   * @param graph
+   * @throws IllegalArgumentException if an edge has a negative weight.
+   */
+  public ShortestPaths(Graph graph) {
+    for (int edge = 0; edge < graph.getEdgeCount(); edge++)
+      if (graph.getWeight(edge) < 0)
+        throw new IllegalArgumentException("Illegal weight: " + graph.getWeight(edge));
+
+    this.graph = graph;
+    this.distances = new long[graph.getVertexCount()];
+    this.parents = new int[graph.getVertexCount()];
+    this.queue = new LongIndexedPriorityQueue(graph.getVertexCount());
+  }
+
+  /**
+   * Computes the shortest paths from the specified source to every vertex.
+   *
+   * @param source
+   * @throws IllegalArgumentException if the source is not a vertex of the graph.
+   */
+  public void run(int source) {
+    this.graph.checkVertex(source);
+
+    for (int vertex = 0; vertex < this.distances.length; vertex++) {
+      this.distances[vertex] = UNREACHABLE;
+      this.parents[vertex] = -1;
+    }
+
+    this.distances[source] = 0;
+    this.queue.put(source, 0);
+
+    while (!this.queue.isEmpty()) {
+      int vertex = this.queue.dequeue();
+      long distance = this.distances[vertex];
+
+      for (int edge = this.graph.offsets[vertex]; edge < this.graph.offsets[vertex + 1]; edge++) {
+        int target = this.graph.targets[edge];
+        long newDistance = distance + this.graph.getWeight(edge);
+
+        if (newDistance < this.distances[target]) {
+          this.distances[target] = newDistance;
+          this.parents[target] = vertex;
+          this.queue.put(target, newDistance);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the length of a shortest path from the source of the last run.
+   *
+   * @param vertex
+   * @return the distance of the vertex, or {@link #UNREACHABLE}
+   */
+  public long getDistance(int vertex) {
+    return this.distances[vertex];
+  }
+
+  /**
+   * Returns the vertex before the specified one on a shortest path from the source of the last
+   * run. Following parents from a vertex leads back to the source.
+   *
+   * @param vertex
+   * @return the parent of the vertex, or -1 for the source or an unreachable vertex
+   */
+  public int getParent(int vertex) {
+    return this.parents[vertex];
+  }
+}
@@ -0,0 +1,131 @@
+/**
+ * The strongly connected components of a directed {@link Graph}, found with Tarjan's algorithm.
+ *
+ * <p>Two vertices are in the same component if each can reach the other. Tarjan's algorithm finds
+ * every component in a single depth-first search: it numbers the vertices in the order they are
+ * visited, tracks the lowest number reachable from each one through the vertices still on its
+ * stack, and closes a component whenever a vertex cannot reach any vertex numbered before itself.
+ *
+ * <p>The depth-first search is iterative, like {@link DepthFirstSearch}, with every stack in an
+ * {@code int[]} sized for the whole graph, so it works on deep graphs and a run allocates nothing.
+ * Components are numbered in the order they are closed, which is a reverse topological order of
+ * the condensed graph: an edge between two components always goes to a lower number.
+ *
+ * <p>Components are found in O(V + E).
+ */
+public class StronglyConnectedComponents {
+  final Graph graph;
+  /** The component of each vertex. */
+  final int[] components;
+  int count; // The number of components
+  /** The order in which each vertex was visited, or -1 if it was not visited yet. */
+  final int[] indices;
+  /** The lowest index reachable from each vertex through vertices on the component stack. */
+  final int[] lowLinks;
+  /** The vertices of the components that are not closed yet. */
+  final int[] stack;
+  /** Whether each vertex is on {@code stack}. */
+  final boolean[] onStack;
+  /** The vertices on the current path of the depth-first search. */
+  final int[] path;
+  /** The next edge to follow from each vertex of the path, at the same indices. */
+  final int[] edges;
+
+  public StronglyConnectedComponents(Graph graph) {
+    int vertexCount = graph.getVertexCount();
+
+    this.graph = graph;
+    this.components = new int[vertexCount];
+    this.indices = new int[vertexCount];
+    this.lowLinks = new int[vertexCount];
+    this.stack = new int[vertexCount];
+    this.onStack = new boolean[vertexCount];
+    this.path = new int[vertexCount];
+    this.edges = new int[vertexCount];
+  }
+
+  /**
+   * Finds the strongly connected components of the graph.
+   *
+   * @return the number of components
+   */
+  public int run() {
+    int vertexCount = this.graph.getVertexCount();
+    int index = 0;
+    int stackLength = 0;
+
+    for (int vertex = 0; vertex < vertexCount; vertex++) this.indices[vertex] = -1;
+
+    this.count = 0;
+
+    for (int root = 0; root < vertexCount; root++) {
+      if (this.indices[root] != -1) continue;
+
+      int length = 0;
+      this.path[length] = root;
+      this.edges[length++] = this.graph.offsets[root];
+      this.indices[root] = this.lowLinks[root] = index++;
+      this.stack[stackLength++] = root;
+      this.onStack[root] = true;
+
+      while (length > 0) {
+        int vertex = this.path[length - 1];
+        int edge = this.edges[length - 1];
+
+        if (edge < this.graph.offsets[vertex + 1]) {
+          this.edges[length - 1]++;
+
+          int target = this.graph.targets[edge];
+
+          if (this.indices[target] == -1) {
+            this.path[length] = target;
+            this.edges[length++] = this.graph.offsets[target];
+            this.indices[target] = this.lowLinks[target] = index++;
+            this.stack[stackLength++] = target;
+            this.onStack[target] = true;
+          } else if (this.onStack[target]) {
+            this.lowLinks[vertex] = Math.min(this.lowLinks[vertex], this.indices[target]);
+          }
+
+          continue;
+        }
+
+        // Every edge was followed: close a component if the vertex is its root.
+        length--;
+
+        if (this.lowLinks[vertex] == this.indices[vertex]) {
+          int member;
+
+          do {
+            member = this.stack[--stackLength];
+            this.onStack[member] = false;
+            this.components[member] = this.count;
+          } while (member != vertex);
+
+          this.count++;
+        }
+
+        if (length > 0) {
+          int parent = this.path[length - 1];
+          this.lowLinks[parent] = Math.min(this.lowLinks[parent], this.lowLinks[vertex]);
+        }
+      }
+    }
+
+    return this.count;
+  }
+
+  public int getCount() {
+    return this.count;
+  }
+
+  /**
+   * Returns the component of the specified vertex after the last run.
+   *
+   * @param vertex
+   * @return a number between 0 (inclusive) and the number of components (exclusive)
+   */
+  public int getComponent(int vertex) {
+    return this.components[vertex];
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * A disjoint-set forest over the integers 0 to {@code n - 1}, for counting the connected components
+ * of a {@link Graph}.
+ *
+ * <p>Each set is a tree of parent links stored in an {@code int[]}, rooted at its representative.
+ * Union by size keeps the trees shallow, and {@code find} halves the path it walks by pointing
+ * every other vertex at its grandparent, so any sequence of operations runs in nearly constant
+ * amortized time per operation: O(a(n)), where a is the inverse Ackermann function.
+ *
+ * <p>Operations with their time complexities are:
+ *
+ * <ul>
+ *   <li><code>UnionFind(Graph)</code>: O(V + E a(V))
+ *   <li><code>find(int)</code>: O(a(n)) (amortized)
+ *   <li><code>union(int, int)</code>: O(a(n)) (amortized)
+ * </ul>
+ */
+public class UnionFind {
+  /** The parent of each element, or the element itself for a representative. */
+  final int[] parents;
+  /** The number of elements in the set of each representative. */
+  final int[] sizes;
+  int count; // The number of sets
+
+  /**
+   * Initializes a forest where every element is alone in its set.
+   *
+   * @param n the number of elements
+   */
+  public UnionFind(int n) {
+    this.parents = new int[n];
+    this.sizes = new int[n];
+    this.count = n;
+
+    for (int element = 0; element < n; element++) {
+      this.parents[element] = element;
+      this.sizes[element] = 1;
+    }
+  }
+
+  /**
+   * Initializes a forest with a set per connected component of the specified graph. Edges are
+   * treated as undirected, so a directed graph yields its weakly connected components.
+   *
+   * @param graph
+   */
+  public UnionFind(Graph graph) {
+    this(graph.getVertexCount());
+
+    for (int vertex = 0; vertex < graph.getVertexCount(); vertex++)
+      for (int edge = graph.offsets[vertex]; edge < graph.offsets[vertex + 1]; edge++)
+        this.union(vertex, graph.targets[edge]);
+  }
+
+  /**
+   * Returns the number of sets.
+   *
+   * @return the number of sets, or connected components
+   */
+  public int getCount() {
+    return this.count;
+  }
+
+  /**
+   * Returns the representative of the set of the specified element.
+   *
+   * @param element
+   * @return the representative, which is the same for every element of the set
+   */
+  public int find(int element) {
+    while (this.parents[element] != element) {
+      this.parents[element] = this.parents[this.parents[element]];
+      element = this.parents[element];
+    }
+
+    return element;
+  }
+
+  /**
+   * Merges the sets of the specified elements, attaching the smaller set under the larger one.
+   *
+   * @param a
+   * @param b
+   * @return {@code true} if the elements were in different sets
+   */
+  public boolean union(int a, int b) {
+    int rootA = this.find(a);
+    int rootB = this.find(b);
+
+    if (rootA == rootB) return false;
+
+    if (this.sizes[rootA] < this.sizes[rootB]) {
+      int root = rootA;
+      rootA = rootB;
+      rootB = root;
+    }
+
+    this.parents[rootB] = rootA;
+    this.sizes[rootA] += this.sizes[rootB];
+    this.count--;
+    return true;
+  }
+
+  public boolean isConnected(int a, int b) {
+    return this.find(a) == this.find(b);
+  }
+
+  /**
+   * Returns the number of elements in the set of the specified element.
+   *
+   * @param element
+   * @return the size of the set
+   */
+  public int getSize(int element) {
+    return this.sizes[this.find(element)];
+  }
+}
@@ -1,15 +1,24 @@
+import java.util.Arrays;
+
 /**
  * An implementation of queue using a static array.
  *
  * <p>This implementation uses the cyclic buffer by storing the indices of the rear and the front of
  * the queue to achieve O(1) complexity on all operations.
  *
+ * <p>By default, the capacity is fixed and {@code enqueue} returns {@code null} when the queue is
+ * full. A growable queue instead doubles its capacity, copying the two wrapped segments of the
+ * buffer to the start of the new array. Growable queues always have a power-of-two capacity, so
+ * indices wrap around with a bit mask.
+ *
  * <p>Operations and their time complexities are:
  *
  * <ul>
- *   <li><code>enqueue(T)</code>: O(1)
+ *   <li><code>enqueue(T)</code>: O(1) (amortized, if growable)
  *   <li><code>dequeue()</code>: O(1)
  *   <li><code>peek()</code>: O(1)
+ *   <li><code>enqueueAll(T[], int, int)</code>: O(k)
+ *   <li><code>dequeueInto(T[])</code>: O(k)
  * </ul>
  */
 public class ArrayQueue<T> implements Queue<T> {
@@ -17,12 +26,29 @@ public class ArrayQueue<T> implements Queue<T> {
   int length;
   int frontIndex;
   int rearIndex;
+  /** Whether this queue grows when full instead of rejecting new elements. */
+  boolean growable;
+  /** The capacity minus one if the capacity is a power of two, or -1 otherwise. */
+  int mask;
 
   public ArrayQueue(int capacity) {
-    this.array = new Object[capacity];
+    this(capacity, false);
+  }
+
+  /**
+   * Initializes a new queue.
+   *
+   * @param capacity the initial capacity, rounded up to a power of two if growable
+   * @param growable whether the queue grows when full instead of rejecting new elements
+   */
+  public ArrayQueue(int capacity, boolean growable) {
+    if (growable && capacity > 1) capacity = Integer.highestOneBit(capacity - 1) << 1;
+
+    this.setArray(new Object[capacity]);
+    this.growable = growable;
     this.length = 0;
     this.frontIndex = 0;
-    this.rearIndex = 0;
+    this.rearIndex = capacity - 1;
   }
 
   public int getLength() {
@@ -37,11 +63,55 @@ public class ArrayQueue<T> implements Queue<T> {
     return this.length == 0;
   }
 
+  public boolean isGrowable() {
+    return this.growable;
+  }
+
+  private void setArray(Object[] array) {
+    this.array = array;
+    this.mask = (array.length & (array.length - 1)) == 0 ? array.length - 1 : -1;
+  }
+
+  /** Returns the index after the specified one, wrapping around the end of the array. */
+  private int increment(int index) {
+    if (this.mask != -1) return (index + 1) & this.mask;
+
+    return index + 1 == this.array.length ? 0 : index + 1;
+  }
+
+  /**
+   * Doubles the capacity until it can hold the specified number of elements.
+   *
+   * <p>The elements are copied in order to the start of the new array with at most two array
+   * copies: one from the front to the end of the old array, one from the start of the old array to
+   * the rear.
+   *
+   * @param minimumCapacity
+   */
+  private void grow(int minimumCapacity) {
+    int newCapacity = Math.max(this.array.length, 1);
+    while (newCapacity < minimumCapacity) newCapacity *= 2;
+
+    Object[] newArray = new Object[newCapacity];
+    int firstSegment = Math.min(this.length, this.array.length - this.frontIndex);
+
+    System.arraycopy(this.array, this.frontIndex, newArray, 0, firstSegment);
+    System.arraycopy(this.array, 0, newArray, firstSegment, this.length - firstSegment);
+
+    this.setArray(newArray);
+    this.frontIndex = 0;
+    this.rearIndex = this.length - 1;
+  }
+
   @SuppressWarnings("unchecked")
   public T enqueue(T data) {
-    if (this.length == this.array.length) return null;
+    if (this.length == this.array.length) {
+      if (!this.growable) return null;
+
+      this.grow(this.length + 1);
+    }
 
-    this.rearIndex = (this.rearIndex + 1) % this.array.length;
+    this.rearIndex = this.increment(this.rearIndex);
     this.array[this.rearIndex] = data;
 
     this.length++;
@@ -54,7 +124,7 @@ public class ArrayQueue<T> implements Queue<T> {
 
     T dequeuedData = (T) this.array[this.frontIndex];
     this.array[this.frontIndex] = null;
-    this.frontIndex = (this.frontIndex + 1) % this.array.length;
+    this.frontIndex = this.increment(this.frontIndex);
 
     this.length--;
     return dequeuedData;
@@ -64,4 +134,64 @@ public class ArrayQueue<T> implements Queue<T> {
   public T peek() {
     return (T) this.array[this.frontIndex];
   }
+
+  /**
+   * Enqueues a run of elements with at most two array copies.
+   *
+   * <p>A growable queue grows once to fit the whole run. A fixed-capacity queue enqueues as many
+   * elements as fit.
+   *
+   * @param source
+   * @param offset the index of the first element to enqueue
+   * @param length the number of elements to enqueue
+   * @return the number of elements enqueued
+   */
+  public int enqueueAll(T[] source, int offset, int length) {
+    if (this.growable && this.length + length > this.array.length)
+      this.grow(this.length + length);
+
+    int count = Math.min(length, this.array.length - this.length);
+
+    if (count == 0) return 0;
+
+    // The run starts right after the rear, and may wrap around the end of the array.
+    int start = this.increment(this.rearIndex);
+    int firstSegment = Math.min(count, this.array.length - start);
+
+    System.arraycopy(source, offset, this.array, start, firstSegment);
+    System.arraycopy(source, offset + firstSegment, this.array, 0, count - firstSegment);
+
+    this.rearIndex = count - firstSegment > 0 ? count - firstSegment - 1 : start + count - 1;
+    this.length += count;
+    return count;
+  }
+
+  /**
+   * Dequeues up to {@code target.length} elements into the specified array with at most two array
+   * copies.
+   *
+   * @param target
+   * @return the number of elements dequeued
+   */
+  public int dequeueInto(T[] target) {
+    int count = Math.min(target.length, this.length);
+
+    if (count == 0) return 0;
+
+    int firstSegment = Math.min(count, this.array.length - this.frontIndex);
+
+    System.arraycopy(this.array, this.frontIndex, target, 0, firstSegment);
+    System.arraycopy(this.array, 0, target, firstSegment, count - firstSegment);
+
+    // Clear the copied slots so the queue does not keep the elements alive.
+    Arrays.fill(this.array, this.frontIndex, this.frontIndex + firstSegment, null);
+    Arrays.fill(this.array, 0, count - firstSegment, null);
+
+    this.frontIndex =
+        count - firstSegment > 0 ? count - firstSegment : this.frontIndex + firstSegment;
+    if (this.frontIndex == this.array.length) this.frontIndex = 0;
+
+    this.length -= count;
+    return count;
+  }
 }
@@ -0,0 +1,560 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A compact, versioned binary format for {@link DynamicArray}, {@link HashTable}, {@link
+ * ArrayQueue}, {@link LinkedQueue}, {@link ArrayStack}, and {@link LinkedStack}.
+ *
+ * <p>Every structure is written as a header (a magic number, the format version, and a type tag),
+ * the number of elements, any settings needed to rebuild the structure with the same capacity,
+ * then the elements themselves, each encoded by a pluggable {@link ElementCodec}. All numbers are
+ * big-endian.
+ *
+ * <p>Structures are written to an {@link Output} and read from an {@link Input}, which the caller
+ * creates once per channel and reuses for every structure on it. Each holds a single buffer,
+ * allocated once, that elements are encoded straight into and decoded straight out of, so nothing
+ * is copied into an intermediate array. An {@code Output} is flushed to its channel whenever its
+ * buffer fills up and by {@link Output#flush()}. An {@code Input} reads ahead, so the bytes of the
+ * next structure may already be in its buffer: only the same {@code Input} can read on from where
+ * a structure ended.
+ *
+ * <p>Array-backed structures are written by scanning their backing arrays, and hash tables by
+ * scanning their buckets, rather than through their public operations. When reading, the target
+ * structure is created with its final capacity so it never resizes. Lengths and capacities are
+ * checked against {@link Input#setMaxLength(int)} before anything is allocated, so a corrupt
+ * stream fails with a {@link StreamCorruptedException} rather than a runtime exception or an
+ * oversized allocation.
+ *
+ * <p>Hash functions are not written. A decoded hash table uses the default hash function.
+ */
+@SuppressWarnings("unchecked")
+public final class BinaryCodec {
+  static final int MAGIC = 0x4a445343; // "JDSC"
+  static final byte VERSION = 1;
+
+  static final byte DYNAMIC_ARRAY = 1;
+  static final byte HASH_TABLE = 2;
+  static final byte ARRAY_QUEUE = 3;
+  static final byte LINKED_QUEUE = 4;
+  static final byte ARRAY_STACK = 5;
+  static final byte LINKED_STACK = 6;
+
+  /** The size of the buffer between a structure and a channel. */
+  static final int BUFFER_SIZE = 1 << 16;
+  /** The largest length or capacity an {@link Input} accepts by default. */
+  public static final int DEFAULT_MAX_LENGTH = 1 << 24;
+  /** The largest maximum length an {@link Input} can be set to. */
+  static final int MAX_LENGTH = 1 << 30;
+
+  private BinaryCodec() {}
+
+  /**
+   * Encodes and decodes single elements.
+   *
+   * <p>An encoder asks the output for as many bytes as it is about to write, then writes them to
+   * the returned buffer. A decoder does the same with the input.
+   */
+  public interface ElementCodec<T> {
+    void encode(T value, Output out) throws IOException;
+
+    T decode(Input in) throws IOException;
+  }
+
+  /** Encodes {@code Integer}s as 4 bytes. Does not accept {@code null}. */
+  public static final ElementCodec<Integer> INTEGER =
+      new ElementCodec<Integer>() {
+        public void encode(Integer value, Output out) throws IOException {
+          out.reserve(4).putInt(value);
+        }
+
+        public Integer decode(Input in) throws IOException {
+          return in.require(4).getInt();
+        }
+      };
+
+  /** Encodes {@code Long}s as 8 bytes. Does not accept {@code null}. */
+  public static final ElementCodec<Long> LONG =
+      new ElementCodec<Long>() {
+        public void encode(Long value, Output out) throws IOException {
+          out.reserve(8).putLong(value);
+        }
+
+        public Long decode(Input in) throws IOException {
+          return in.require(8).getLong();
+        }
+      };
+
+  /** Encodes {@code Double}s as 8 bytes. Does not accept {@code null}. */
+  public static final ElementCodec<Double> DOUBLE =
+      new ElementCodec<Double>() {
+        public void encode(Double value, Output out) throws IOException {
+          out.reserve(8).putDouble(value);
+        }
+
+        public Double decode(Input in) throws IOException {
+          return in.require(8).getDouble();
+        }
+      };
+
+  /**
+   * Encodes {@code String}s as their length in bytes followed by their UTF-8 bytes. Does not accept
+   * {@code null}.
+   */
+  public static final ElementCodec<String> STRING =
+      new ElementCodec<String>() {
+        public void encode(String value, Output out) throws IOException {
+          byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+          out.reserve(4).putInt(bytes.length);
+          out.write(bytes);
+        }
+
+        public String decode(Input in) throws IOException {
+          return new String(in.read(in.readLength()), StandardCharsets.UTF_8);
+        }
+      };
+
+  /**
+   * Returns a codec that also accepts {@code null}, by writing a one-byte flag before each element.
+   *
+   * @param codec the codec for non-null elements
+   * @return a codec for possibly {@code null} elements
+   */
+  public static <T> ElementCodec<T> nullable(ElementCodec<T> codec) {
+    return new ElementCodec<T>() {
+      public void encode(T value, Output out) throws IOException {
+        out.reserve(1).put((byte) (value == null ? 0 : 1));
+
+        if (value != null) codec.encode(value, out);
+      }
+
+      public T decode(Input in) throws IOException {
+        return in.require(1).get() == 0 ? null : codec.decode(in);
+      }
+    };
+  }
+
+  /** A buffered writer to a channel, reused for every structure written to it. */
+  public static final class Output {
+    final WritableByteChannel channel;
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    public Output(WritableByteChannel channel) {
+      this.channel = channel;
+    }
+
+    /**
+     * Returns the buffer to write to, with at least the specified number of bytes remaining.
+     *
+     * @param bytes at most {@link BinaryCodec#BUFFER_SIZE}
+     * @return the buffer
+     * @throws IOException if the buffer cannot be flushed.
+     */
+    public ByteBuffer reserve(int bytes) throws IOException {
+      if (this.buffer.remaining() < bytes) this.flush();
+
+      return this.buffer;
+    }
+
+    /**
+     * Writes an array of bytes of any length.
+     *
+     * @param bytes
+     * @throws IOException if the buffer cannot be flushed.
+     */
+    public void write(byte[] bytes) throws IOException {
+      for (int offset = 0; offset < bytes.length; ) {
+        int count = Math.min(bytes.length - offset, this.reserve(1).remaining());
+
+        this.buffer.put(bytes, offset, count);
+        offset += count;
+      }
+    }
+
+    /**
+     * Writes the buffered bytes to the channel. Must be called once the last structure is written.
+     *
+     * @throws IOException if the channel cannot be written.
+     */
+    public void flush() throws IOException {
+      this.buffer.flip();
+      while (this.buffer.hasRemaining()) this.channel.write(this.buffer);
+      this.buffer.clear();
+    }
+  }
+
+  /** A buffered reader from a channel, reused for every structure read from it. */
+  public static final class Input {
+    final ReadableByteChannel channel;
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).limit(0);
+    /** The largest length or capacity accepted from the channel. */
+    int maxLength = DEFAULT_MAX_LENGTH;
+
+    public Input(ReadableByteChannel channel) {
+      this.channel = channel;
+    }
+
+    public int getMaxLength() {
+      return this.maxLength;
+    }
+
+    /**
+     * Sets the largest length or capacity accepted from the channel, which bounds what a corrupt
+     * stream can make a read allocate. Defaults to {@link BinaryCodec#DEFAULT_MAX_LENGTH}.
+     *
+     * @param maxLength
+     * @throws IllegalArgumentException if the maximum length is negative or above 2^30.
+     */
+    public void setMaxLength(int maxLength) {
+      if (maxLength < 0 || maxLength > MAX_LENGTH)
+        throw new IllegalArgumentException("Illegal max length: " + maxLength);
+
+      this.maxLength = maxLength;
+    }
+
+    /**
+     * Reads a length or a capacity written as 4 bytes, and checks it before it is allocated.
+     *
+     * @return the length, between 0 and the maximum length
+     * @throws IOException if the channel ends first.
+     * @throws StreamCorruptedException if the length is negative or above the maximum length.
+     */
+    public int readLength() throws IOException {
+      int length = this.require(4).getInt();
+
+      if (length < 0 || length > this.maxLength)
+        throw new StreamCorruptedException("Illegal length: " + length);
+
+      return length;
+    }
+
+    /**
+     * Returns the buffer to read from, with at least the specified number of bytes remaining.
+     *
+     * @param bytes at most {@link BinaryCodec#BUFFER_SIZE}
+     * @return the buffer
+     * @throws IOException if the channel ends first.
+     */
+    public ByteBuffer require(int bytes) throws IOException {
+      if (this.buffer.remaining() >= bytes) return this.buffer;
+
+      this.buffer.compact();
+
+      while (this.buffer.position() < bytes)
+        if (this.channel.read(this.buffer) < 0) throw new EOFException();
+
+      return this.buffer.flip();
+    }
+
+    /**
+     * Reads an array of bytes of any length.
+     *
+     * @param length
+     * @return the bytes
+     * @throws IOException if the channel ends first.
+     */
+    public byte[] read(int length) throws IOException {
+      byte[] bytes = new byte[length];
+
+      for (int offset = 0; offset < length; ) {
+        int count = Math.min(length - offset, this.require(1).remaining());
+
+        this.buffer.get(bytes, offset, count);
+        offset += count;
+      }
+
+      return bytes;
+    }
+  }
+
+  private static void begin(Output out, byte type, int length) throws IOException {
+    out.reserve(10).putInt(MAGIC).put(VERSION).put(type).putInt(length);
+  }
+
+  private static void begin(Input in, byte type) throws IOException {
+    ByteBuffer header = in.require(6);
+
+    int magic = header.getInt();
+    if (magic != MAGIC) throw new StreamCorruptedException("Illegal magic number: " + magic);
+
+    byte version = header.get();
+    if (version != VERSION) throw new StreamCorruptedException("Illegal version: " + version);
+
+    byte actualType = header.get();
+    if (actualType != type) throw new StreamCorruptedException("Illegal type: " + actualType);
+  }
+
+  /** Reads the capacity of an array-backed structure, which must hold its length. */
+  private static int readCapacity(Input in, int length) throws IOException {
+    int capacity = in.readLength();
+
+    if (capacity < length) throw new StreamCorruptedException("Illegal capacity: " + capacity);
+
+    return capacity;
+  }
+
+  private static <T> void encode(
+      Object[] array, int from, int to, ElementCodec<T> codec, Output out) throws IOException {
+    for (int i = from; i < to; i++) codec.encode((T) array[i], out);
+  }
+
+  /**
+   * Writes a dynamic array to the specified output.
+   *
+   * @param array
+   * @param codec
+   * @param out
+   * @throws IOException if the output cannot be flushed.
+   */
+  public static <T> void write(DynamicArray<T> array, ElementCodec<? super T> codec, Output out)
+      throws IOException {
+    begin(out, DYNAMIC_ARRAY, array.length);
+
+    encode(array.array, 0, array.length, codec, out);
+  }
+
+  /**
+   * Reads a dynamic array from the specified input, with a capacity equal to its length.
+   *
+   * @param codec
+   * @param in
+   * @return the array
+   * @throws IOException if the input cannot be read or does not hold a dynamic array.
+   */
+  public static <T> DynamicArray<T> readDynamicArray(ElementCodec<T> codec, Input in)
+      throws IOException {
+    begin(in, DYNAMIC_ARRAY);
+    int length = in.readLength();
+    DynamicArray<T> array = new DynamicArray<T>(length);
+
+    for (int i = 0; i < length; i++) array.array[i] = codec.decode(in);
+
+    array.length = length;
+    return array;
+  }
+
+  /**
+   * Writes a hash table to the specified output, along with its capacity, maximum load factor,
+   * and whether its capacity is kept at a power of two.
+   *
+   * <p>If an incremental resize is in progress, the buckets that were not migrated yet are written
+   * as they are, without finishing the resize.
+   *
+   * @param table
+   * @param keyCodec
+   * @param valueCodec
+   * @param out
+   * @throws IOException if the output cannot be flushed.
+   */
+  public static <K, V> void write(
+      HashTable<K, V> table,
+      ElementCodec<? super K> keyCodec,
+      ElementCodec<? super V> valueCodec,
+      Output out)
+      throws IOException {
+    begin(out, HASH_TABLE, table.length);
+
+    out.reserve(9)
+        .putInt(table.capacity)
+        .putFloat(table.loadFactor)
+        .put((byte) (table.powerOfTwoCapacity ? 1 : 0));
+
+    table.visit(
+        (key, value) -> {
+          keyCodec.encode(key, out);
+          valueCodec.encode(value, out);
+        });
+  }
+
+  /**
+   * Reads a hash table from the specified input, with the capacity it was written with.
+   *
+   * @param keyCodec
+   * @param valueCodec
+   * @param in
+   * @return the table
+   * @throws IOException if the input cannot be read or does not hold a hash table.
+   */
+  public static <K, V> HashTable<K, V> readHashTable(
+      ElementCodec<K> keyCodec, ElementCodec<V> valueCodec, Input in) throws IOException {
+    begin(in, HASH_TABLE);
+    int length = in.readLength();
+    int capacity = in.readLength();
+    ByteBuffer header = in.require(5);
+    float loadFactor = header.getFloat();
+    boolean powerOfTwoCapacity = header.get() != 0;
+
+    if (!(loadFactor > 0) || Float.isInfinite(loadFactor))
+      throw new StreamCorruptedException("Illegal load factor: " + loadFactor);
+    if (powerOfTwoCapacity && (capacity & (capacity - 1)) != 0)
+      throw new StreamCorruptedException("Illegal capacity: " + capacity);
+
+    HashTable<K, V> table = new HashTable<K, V>(capacity, loadFactor);
+    table.powerOfTwoCapacity = powerOfTwoCapacity;
+
+    for (int i = 0; i < length; i++) table.put(keyCodec.decode(in), valueCodec.decode(in));
+
+    return table;
+  }
+
+  /**
+   * Writes an array queue to the specified output, from front to rear, along with its capacity
+   * and whether it is growable.
+   *
+   * @param queue
+   * @param codec
+   * @param out
+   * @throws IOException if the output cannot be flushed.
+   */
+  public static <T> void write(ArrayQueue<T> queue, ElementCodec<? super T> codec, Output out)
+      throws IOException {
+    begin(out, ARRAY_QUEUE, queue.length);
+
+    out.reserve(5).putInt(queue.array.length).put((byte) (queue.growable ? 1 : 0));
+
+    // The elements may wrap around the end of the array.
+    int firstSegment = Math.min(queue.length, queue.array.length - queue.frontIndex);
+
+    encode(queue.array, queue.frontIndex, queue.frontIndex + firstSegment, codec, out);
+    encode(queue.array, 0, queue.length - firstSegment, codec, out);
+  }
+
+  /**
+   * Reads an array queue from the specified input, with the capacity it was written with.
+   *
+   * @param codec
+   * @param in
+   * @return the queue
+   * @throws IOException if the input cannot be read or does not hold an array queue.
+   */
+  public static <T> ArrayQueue<T> readArrayQueue(ElementCodec<T> codec, Input in)
+      throws IOException {
+    begin(in, ARRAY_QUEUE);
+    int length = in.readLength();
+    int capacity = readCapacity(in, length);
+    ArrayQueue<T> queue = new ArrayQueue<T>(capacity, in.require(1).get() != 0);
+
+    for (int i = 0; i < length; i++) queue.array[i] = codec.decode(in);
+
+    queue.length = length;
+    queue.rearIndex = length == 0 ? queue.array.length - 1 : length - 1;
+    return queue;
+  }
+
+  /**
+   * Writes a linked queue to the specified output, from front to rear.
+   *
+   * @param queue
+   * @param codec
+   * @param out
+   * @throws IOException if the output cannot be flushed.
+   */
+  public static <T> void write(LinkedQueue<T> queue, ElementCodec<? super T> codec, Output out)
+      throws IOException {
+    begin(out, LINKED_QUEUE, queue.length);
+
+    for (LinkedNode<T> node = queue.front.next; node != queue.rear; node = node.next)
+      codec.encode(node.data, out);
+  }
+
+  /**
+   * Reads a linked queue from the specified input.
+   *
+   * @param codec
+   * @param in
+   * @return the queue
+   * @throws IOException if the input cannot be read or does not hold a linked queue.
+   */
+  public static <T> LinkedQueue<T> readLinkedQueue(ElementCodec<T> codec, Input in)
+      throws IOException {
+    begin(in, LINKED_QUEUE);
+    int length = in.readLength();
+    LinkedQueue<T> queue = new LinkedQueue<T>();
+
+    for (int i = 0; i < length; i++) queue.enqueue(codec.decode(in));
+
+    return queue;
+  }
+
+  /**
+   * Writes an array stack to the specified output, from bottom to top, along with its capacity.
+   *
+   * @param stack
+   * @param codec
+   * @param out
+   * @throws IOException if the output cannot be flushed.
+   */
+  public static <T> void write(ArrayStack<T> stack, ElementCodec<? super T> codec, Output out)
+      throws IOException {
+    begin(out, ARRAY_STACK, stack.length);
+
+    out.reserve(4).putInt(stack.array.length);
+    encode(stack.array, 0, stack.length, codec, out);
+  }
+
+  /**
+   * Reads an array stack from the specified input, with the capacity it was written with.
+   *
+   * @param codec
+   * @param in
+   * @return the stack
+   * @throws IOException if the input cannot be read or does not hold an array stack.
+   */
+  public static <T> ArrayStack<T> readArrayStack(ElementCodec<T> codec, Input in)
+      throws IOException {
+    begin(in, ARRAY_STACK);
+    int length = in.readLength();
+    ArrayStack<T> stack = new ArrayStack<T>(readCapacity(in, length));
+
+    for (int i = 0; i < length; i++) stack.array[i] = codec.decode(in);
+
+    stack.length = length;
+    return stack;
+  }
+
+  /**
+   * Writes a linked stack to the specified output, from top to bottom.
+   *
+   * @param stack
+   * @param codec
+   * @param out
+   * @throws IOException if the output cannot be flushed.
+   */
+  public static <T> void write(LinkedStack<T> stack, ElementCodec<? super T> codec, Output out)
+      throws IOException {
+    begin(out, LINKED_STACK, stack.length);
+
+    LinkedNode<T> node = stack.top.next;
+    for (int i = 0; i < stack.length; i++, node = node.next) codec.encode(node.data, out);
+  }
+
+  /**
+   * Reads a linked stack from the specified input.
+   *
+   * <p>Each element is linked below the previous one as it is read, so the stack is built in one
+   * pass without pushing in reverse.
+   *
+   * @param codec
+   * @param in
+   * @return the stack
+   * @throws IOException if the input cannot be read or does not hold a linked stack.
+   */
+  public static <T> LinkedStack<T> readLinkedStack(ElementCodec<T> codec, Input in)
+      throws IOException {
+    begin(in, LINKED_STACK);
+    int length = in.readLength();
+    LinkedStack<T> stack = new LinkedStack<T>();
+
+    LinkedNode<T> last = stack.top;
+    for (int i = 0; i < length; i++)
+      last = last.next = new LinkedNode<T>(codec.decode(in), last.next);
+
+    stack.length = length;
+    return stack;
+  }
+}
@@ -0,0 +1,508 @@
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A cache with a bounded total weight, which evicts entries as new ones are put.
+ *
+ * <p>Keys are indexed by a {@link HashTable}. Each entry also sits in an intrusive {@link
+ * DoublyLinkedList} that orders the entries for eviction, so finding the next victim never scans
+ * the table. Every operation is O(1). The order depends on the eviction policy:
+ *
+ * <ul>
+ *   <li>{@code LRU}: a single list in order of last access. The least recently used entry is
+ *       evicted.
+ *   <li>{@code LFU}: one list per access count, in a list of counts in ascending order. The least
+ *       recently used of the least frequently used entries is evicted.
+ *   <li>{@code W_TINY_LFU}: new entries enter a small LRU window (1% of the maximum weight).
+ *       Entries leaving the window compete for the main space, an LRU split into a probation
+ *       segment and a protected segment (80% of the main space) for entries accessed again while
+ *       on probation.
+ *       A candidate from the window is admitted only if it was accessed more often than the
+ *       probation entry it would evict, according to a small count-min sketch of recent accesses
+ *       whose counts are halved periodically. This keeps the hit rate of LFU on skewed workloads
+ *       while letting bursts of new keys in like LRU.
+ * </ul>
+ *
+ * <p>Each entry has a weight, given by a weigher and 1 by default, so the maximum weight is the
+ * maximum number of entries unless a weigher is set. The cache counts hits, misses, and evictions
+ * so that its size can be tuned from the observed hit rate.
+ */
+public class BoundedCache<K, V> {
+  public enum EvictionPolicy {
+    LRU,
+    LFU,
+    W_TINY_LFU
+  }
+
+  /** A cached key-value pair. */
+  static final class Entry<K, V> {
+    final K key;
+    V value;
+    int weight;
+    /** The segment holding this entry, for {@code LRU} and {@code W_TINY_LFU}. */
+    int segment;
+    /** The node of this entry in its segment or frequency group list. */
+    DoublyLinkedNode<Entry<K, V>> node;
+    /** The frequency group holding this entry, for {@code LFU}. */
+    FrequencyGroup<K, V> group;
+
+    Entry(K key, V value, int weight) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  /** The entries of an {@code LFU} cache that were accessed the same number of times. */
+  static final class FrequencyGroup<K, V> {
+    final int frequency;
+    final DoublyLinkedList<Entry<K, V>> entries = new DoublyLinkedList<Entry<K, V>>();
+    FrequencyGroup<K, V> prev;
+    FrequencyGroup<K, V> next;
+
+    FrequencyGroup(int frequency) {
+      this.frequency = frequency;
+    }
+  }
+
+  /**
+   * A count-min sketch of how often keys were accessed recently, with counts of at most 15.
+   *
+   * <p>Each key increments four counters picked by differently seeded hashes, and its frequency is
+   * the smallest of the four. Once the number of increments reaches ten times the width, every
+   * counter is halved so that old accesses fade.
+   */
+  static final class FrequencySketch {
+    static final int[] SEEDS = {0x97cb3127, 0xb2b1f8c5, 0x7f4a7c15, 0x2545f491};
+
+    final int[] counters;
+    int additions;
+    final int sampleSize;
+
+    FrequencySketch(long maxWeight) {
+      int width = (int) Math.min(Math.max(maxWeight, 16), 1 << 22);
+
+      this.counters = new int[Integer.highestOneBit(width - 1) << 1];
+      this.sampleSize = 10 * this.counters.length;
+    }
+
+    private int index(int hash, int i) {
+      return HashFunctions.fmix32(hash + SEEDS[i]) & (this.counters.length - 1);
+    }
+
+    int frequency(Object key) {
+      int hash = key.hashCode();
+      int frequency = Integer.MAX_VALUE;
+
+      for (int i = 0; i < SEEDS.length; i++)
+        frequency = Math.min(frequency, this.counters[this.index(hash, i)]);
+
+      return frequency;
+    }
+
+    void increment(Object key) {
+      int hash = key.hashCode();
+
+      for (int i = 0; i < SEEDS.length; i++) {
+        int index = this.index(hash, i);
+        if (this.counters[index] < 15) this.counters[index]++;
+      }
+
+      if (++this.additions == this.sampleSize) {
+        for (int i = 0; i < this.counters.length; i++) this.counters[i] >>>= 1;
+
+        this.additions /= 2;
+      }
+    }
+  }
+
+  static final int WINDOW = 0;
+  static final int PROBATION = 1;
+  static final int PROTECTED = 2;
+  /** The order in which segments are evicted from. */
+  static final int[] EVICTION_ORDER = {PROBATION, PROTECTED, WINDOW};
+
+  /** The index of the cached entries by key. */
+  HashTable<K, Entry<K, V>> index;
+  EvictionPolicy policy;
+  ToIntBiFunction<? super K, ? super V> weigher;
+  long maxWeight;
+  /** The total weight of the cached entries. */
+  long weight;
+
+  /**
+   * The lists of entries in eviction order, from the head: only {@code WINDOW} for {@code LRU}, or
+   * {@code WINDOW}, {@code PROBATION} and {@code PROTECTED} for {@code W_TINY_LFU}.
+   */
+  DoublyLinkedList<Entry<K, V>>[] segments;
+  /** The total weight of the entries in each segment. */
+  long[] segmentWeights;
+  /** The maximum weight of the window, for {@code W_TINY_LFU}. */
+  long windowMaxWeight;
+  /** The maximum weight of the main space, probation and protected together. */
+  long mainMaxWeight;
+  /** The maximum weight of the protected segment, a share of the main space. */
+  long protectedMaxWeight;
+  /** A circular list of {@code LFU} frequency groups in ascending order, or {@code null}. */
+  FrequencyGroup<K, V> groups;
+  /** The recent access frequencies, for {@code W_TINY_LFU}. */
+  FrequencySketch sketch;
+
+  long hits;
+  long misses;
+  long evictions;
+
+  /**
+   * Initializes a new cache that holds up to the specified number of entries.
+   *
+   * @param maxEntries
+   * @param policy
+   */
+  public BoundedCache(long maxEntries, EvictionPolicy policy) {
+    this(maxEntries, (key, value) -> 1, policy);
+  }
+
+  /**
+   * Initializes a new cache whose entries weigh up to the specified total weight.
+   *
+   * @param maxWeight
+   * @param weigher returns the weight of an entry, which must not be negative
+   * @param policy
+   * @throws IllegalArgumentException if the maximum weight is below 1.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public BoundedCache(
+      long maxWeight, ToIntBiFunction<? super K, ? super V> weigher, EvictionPolicy policy) {
+    if (maxWeight < 1) throw new IllegalArgumentException("Illegal maximum weight: " + maxWeight);
+
+    this.index = new HashTable<K, Entry<K, V>>();
+    this.index.setPowerOfTwoCapacity(true);
+    this.index.setHashFunction(new HashFunctions.MurmurHash(this.index));
+    this.policy = policy;
+    this.weigher = weigher;
+    this.maxWeight = maxWeight;
+
+    switch (policy) {
+      case LRU:
+        this.segments = new DoublyLinkedList[] {new DoublyLinkedList<Entry<K, V>>(16)};
+        this.segmentWeights = new long[1];
+        break;
+      case LFU:
+        this.groups = new FrequencyGroup<K, V>(0);
+        this.groups.prev = this.groups.next = this.groups;
+        break;
+      case W_TINY_LFU:
+        this.windowMaxWeight = Math.max(maxWeight / 100, 1);
+        this.mainMaxWeight = maxWeight - this.windowMaxWeight;
+        this.protectedMaxWeight = (long) (this.mainMaxWeight * 0.8);
+
+        this.segments = new DoublyLinkedList[3];
+        for (int i = 0; i < 3; i++) this.segments[i] = new DoublyLinkedList<Entry<K, V>>(16);
+
+        this.segmentWeights = new long[3];
+        this.sketch = new FrequencySketch(maxWeight);
+        break;
+    }
+  }
+
+  /**
+   * Returns the number of entries in this cache.
+   *
+   * @return the number of entries in this cache
+   */
+  public int getLength() {
+    return this.index.getLength();
+  }
+
+  /**
+   * Returns the total weight of the entries in this cache.
+   *
+   * @return the weight of this cache
+   */
+  public long getWeight() {
+    return this.weight;
+  }
+
+  /**
+   * Returns the weight this cache evicts entries to stay within.
+   *
+   * @return the maximum weight of this cache
+   */
+  public long getMaxWeight() {
+    return this.maxWeight;
+  }
+
+  /**
+   * Returns the policy that picks the entries to evict.
+   *
+   * @return the eviction policy of this cache
+   */
+  public EvictionPolicy getPolicy() {
+    return this.policy;
+  }
+
+  /**
+   * Returns the number of {@code get} calls that found their key.
+   *
+   * @return the number of hits
+   */
+  public long getHitCount() {
+    return this.hits;
+  }
+
+  /**
+   * Returns the number of {@code get} calls that did not find their key.
+   *
+   * @return the number of misses
+   */
+  public long getMissCount() {
+    return this.misses;
+  }
+
+  /**
+   * Returns the number of entries removed to stay within the maximum weight, including new entries
+   * that were not admitted.
+   *
+   * @return the number of evictions
+   */
+  public long getEvictionCount() {
+    return this.evictions;
+  }
+
+  /**
+   * Returns the fraction of {@code get} calls that found their key.
+   *
+   * @return the hit rate, or 0 if {@code get} was never called
+   */
+  public double getHitRate() {
+    long requests = this.hits + this.misses;
+
+    return requests == 0 ? 0 : (double) this.hits / requests;
+  }
+
+  /** Resets the hit, miss, and eviction counts to 0. */
+  public void resetStatistics() {
+    this.hits = this.misses = this.evictions = 0;
+  }
+
+  /**
+   * Returns whether the specified key is cached, without recording an access.
+   *
+   * @param key
+   * @return {@code true} if the key is cached
+   */
+  public boolean containsKey(K key) {
+    return this.index.get(key) != null;
+  }
+
+  /**
+   * Returns the value of the specified key, and records the access for eviction.
+   *
+   * @param key
+   * @return the value of the key, or {@code null} if the key is not cached
+   */
+  public V get(K key) {
+    Entry<K, V> entry = this.index.get(key);
+
+    if (this.sketch != null) this.sketch.increment(key);
+
+    if (entry == null) {
+      this.misses++;
+      return null;
+    }
+
+    this.hits++;
+    this.access(entry);
+    return entry.value;
+  }
+
+  /**
+   * Puts a key-value pair into this cache, overriding the value if the key is already cached, then
+   * evicts entries until the cache is within its maximum weight.
+   *
+   * <p>An entry heavier than the maximum weight is evicted right away.
+   *
+   * @param key
+   * @param value
+   * @throws IllegalArgumentException if the weigher returns a negative weight.
+   */
+  public void put(K key, V value) {
+    int weight = this.weigher.applyAsInt(key, value);
+
+    if (weight < 0) throw new IllegalArgumentException("Illegal weight: " + weight);
+
+    Entry<K, V> entry = this.index.get(key);
+
+    if (this.sketch != null) this.sketch.increment(key);
+
+    if (weight > this.maxWeight) {
+      if (entry != null) this.unlink(entry);
+
+      this.evictions++;
+      return;
+    }
+
+    if (entry != null) {
+      entry.value = value;
+      this.weight += weight - entry.weight;
+      if (this.segments != null) this.segmentWeights[entry.segment] += weight - entry.weight;
+      entry.weight = weight;
+
+      this.access(entry);
+
+      // A heavier protected entry may push the protected segment over its maximum weight.
+      if (this.segments != null && entry.segment == PROTECTED) this.demote();
+    } else {
+      entry = new Entry<K, V>(key, value, weight);
+
+      this.index.put(key, entry);
+      this.weight += weight;
+
+      if (this.groups != null) this.addToGroup(entry, this.groups, 1);
+      else this.addToSegment(entry, WINDOW);
+    }
+
+    this.evict();
+  }
+
+  /**
+   * Removes a key from this cache, if it is cached. This does not count as an eviction.
+   *
+   * @param key
+   * @return the value of the key, or {@code null} if the key was not cached
+   */
+  public V remove(K key) {
+    Entry<K, V> entry = this.index.get(key);
+
+    if (entry == null) return null;
+
+    this.unlink(entry);
+    return entry.value;
+  }
+
+  private void addToSegment(Entry<K, V> entry, int segment) {
+    entry.segment = segment;
+    entry.node = this.segments[segment].insertAtTail(entry);
+    this.segmentWeights[segment] += entry.weight;
+  }
+
+  private void removeFromSegment(Entry<K, V> entry) {
+    this.segments[entry.segment].removeNode(entry.node);
+    this.segmentWeights[entry.segment] -= entry.weight;
+  }
+
+  /**
+   * Adds an entry to the group with the specified frequency, which is either the specified group or
+   * a new group inserted after it.
+   */
+  private void addToGroup(Entry<K, V> entry, FrequencyGroup<K, V> prev, int frequency) {
+    FrequencyGroup<K, V> group = prev.next;
+
+    if (group.frequency != frequency) {
+      group = new FrequencyGroup<K, V>(frequency);
+      group.prev = prev;
+      group.next = prev.next;
+      prev.next = group.next.prev = group;
+    }
+
+    entry.group = group;
+    entry.node = group.entries.insertAtTail(entry);
+  }
+
+  private void removeFromGroup(Entry<K, V> entry) {
+    FrequencyGroup<K, V> group = entry.group;
+
+    group.entries.removeNode(entry.node);
+
+    if (group.entries.isEmpty()) {
+      group.prev.next = group.next;
+      group.next.prev = group.prev;
+    }
+  }
+
+  /** Moves an entry that was just accessed according to the eviction policy. */
+  private void access(Entry<K, V> entry) {
+    if (this.groups != null) {
+      FrequencyGroup<K, V> group = entry.group;
+      // The group stays linked to its neighbors even if it is removed, so it can be the anchor.
+      FrequencyGroup<K, V> prev = group.entries.getLength() == 1 ? group.prev : group;
+
+      this.removeFromGroup(entry);
+      this.addToGroup(entry, prev, group.frequency + 1);
+    } else if (entry.segment == PROBATION) {
+      this.removeFromSegment(entry);
+      this.addToSegment(entry, PROTECTED);
+      this.demote();
+    } else {
+      this.segments[entry.segment].moveToBack(entry.node);
+    }
+  }
+
+  /** Demotes the least recently used protected entries back to probation until they fit. */
+  private void demote() {
+    while (this.segmentWeights[PROTECTED] > this.protectedMaxWeight) {
+      Entry<K, V> demoted = this.segments[PROTECTED].getHead().data;
+
+      this.removeFromSegment(demoted);
+      this.addToSegment(demoted, PROBATION);
+    }
+  }
+
+  private void unlink(Entry<K, V> entry) {
+    if (this.groups != null) this.removeFromGroup(entry);
+    else this.removeFromSegment(entry);
+
+    this.index.remove(entry.key);
+    this.weight -= entry.weight;
+  }
+
+  private void evict(Entry<K, V> entry) {
+    this.unlink(entry);
+    this.evictions++;
+  }
+
+  /** Evicts entries until this cache is within its maximum weight. */
+  private void evict() {
+    if (this.policy == EvictionPolicy.W_TINY_LFU) this.evictFromWindow();
+
+    while (this.weight > this.maxWeight) this.evict(this.victim());
+  }
+
+  /**
+   * Returns the next entry to evict. For {@code W_TINY_LFU}, that is the least recently used entry
+   * of the main space, or of the window if the main space is empty.
+   */
+  private Entry<K, V> victim() {
+    if (this.groups != null) return this.groups.next.entries.getHead().data;
+
+    for (int segment : EVICTION_ORDER)
+      if (segment < this.segments.length && !this.segments[segment].isEmpty())
+        return this.segments[segment].getHead().data;
+
+    return null;
+  }
+
+  /**
+   * Moves the entries overflowing the window to probation, where each one either evicts entries of
+   * the main space that were accessed less often or is evicted itself.
+   */
+  private void evictFromWindow() {
+    while (this.segmentWeights[WINDOW] > this.windowMaxWeight) {
+      Entry<K, V> candidate = this.segments[WINDOW].getHead().data;
+
+      this.removeFromSegment(candidate);
+      this.addToSegment(candidate, PROBATION);
+
+      while (this.segmentWeights[PROBATION] + this.segmentWeights[PROTECTED] > this.mainMaxWeight) {
+        Entry<K, V> victim = this.victim();
+
+        if (victim == candidate
+            || this.sketch.frequency(candidate.key) <= this.sketch.frequency(victim.key)) {
+          this.evict(candidate);
+          break;
+        }
+
+        this.evict(victim);
+      }
+    }
+  }
+}
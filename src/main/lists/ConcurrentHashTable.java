@@ -0,0 +1,410 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe hash table that uses chaining to resolve collisions.
+ *
+ * <p>Like {@link HashTable}, each bucket holds a singly linked list of nodes. Unlike it, any number
+ * of threads may call {@code put}, {@code remove}, and {@code get} at the same time:
+ *
+ * <ul>
+ *   <li>{@code get} takes no lock. Buckets are read with volatile semantics and the links and
+ *       values of nodes are volatile, so a reader always sees a fully linked chain.
+ *   <li>{@code put} into an empty bucket is a single compare-and-set. Otherwise writers lock the
+ *       first node of the bucket, so the locks are striped across all buckets and writers only
+ *       contend when they hit the same bucket.
+ *   <li>Resizing is cooperative. The thread that exceeds the load factor allocates the doubled
+ *       array of buckets, then threads claim ranges of old buckets to migrate. A migrated bucket is
+ *       replaced by a forwarding node that sends readers to the new array, and any writer that runs
+ *       into one helps with the migration before retrying.
+ *   <li>The number of key-value pairs is kept in a {@link LongAdder}, so writers do not contend on
+ *       a single counter.
+ * </ul>
+ *
+ * <p>The capacity is always a power of two. Instead of a pluggable hash function, the hash code of
+ * a key is mixed and masked to the capacity, because every thread must agree on the bucket of a key
+ * even while the capacity is changing.
+ *
+ * <p>All operations ({@code put}, {@code remove}, and {@code get}) are O(1) at best (when the load
+ * factor is good and the hash codes are random) and O(n) at worst (when all keys collide).
+ */
+@SuppressWarnings("unchecked")
+public class ConcurrentHashTable<K, V> {
+  /** The hash of forwarding nodes. Hashes of keys are never negative. */
+  static final int MOVED = -1;
+  /** The number of buckets a thread claims at a time while migrating. */
+  static final int TRANSFER_STRIDE = 16;
+
+  /** A hash table node whose value and link may be read without locking. */
+  static class Node<K, V> {
+    final int hash;
+    final K key;
+    volatile V value;
+    volatile Node<K, V> next;
+
+    Node(int hash, K key, V value, Node<K, V> next) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+      this.next = next;
+    }
+  }
+
+  /** A node that replaces a migrated bucket and points to the resize it belongs to. */
+  static class ForwardingNode<K, V> extends Node<K, V> {
+    final Resize<K, V> resize;
+
+    ForwardingNode(Resize<K, V> resize) {
+      super(MOVED, null, null, null);
+      this.resize = resize;
+    }
+  }
+
+  /** The state of one resize, shared by all threads that help with it. */
+  static class Resize<K, V> {
+    final AtomicReferenceArray<Node<K, V>> oldBuckets;
+    final AtomicReferenceArray<Node<K, V>> newBuckets;
+    final ForwardingNode<K, V> forwardingNode;
+    /** The index of the next old bucket to be claimed. */
+    final AtomicInteger claimIndex = new AtomicInteger();
+    /** The number of old buckets that have not been migrated yet. */
+    final AtomicInteger remaining;
+
+    Resize(AtomicReferenceArray<Node<K, V>> oldBuckets) {
+      this.oldBuckets = oldBuckets;
+      this.newBuckets = new AtomicReferenceArray<Node<K, V>>(oldBuckets.length() * 2);
+      this.forwardingNode = new ForwardingNode<K, V>(this);
+      this.remaining = new AtomicInteger(oldBuckets.length());
+    }
+  }
+
+  /** The buckets of this hash table, each containing a singly linked list of nodes, or null. */
+  volatile AtomicReferenceArray<Node<K, V>> buckets;
+  /** The resize in progress, or {@code null}. */
+  final AtomicReference<Resize<K, V>> resize = new AtomicReference<Resize<K, V>>();
+  /** The number of key-value pairs that are stored by this hash table. */
+  final LongAdder length = new LongAdder();
+  /**
+   * The maximum load factor allowed for this hash table.
+   *
+   * @see HashTable#loadFactor
+   */
+  final float loadFactor;
+
+  /** Initializes a new hash table with 16 buckets and a maximum load factor of 0.75. */
+  public ConcurrentHashTable() {
+    this(16, 0.75f);
+  }
+
+  /**
+   * Initializes a new hash table with at least the specified initial capacity and a maximum load
+   * factor of 0.75.
+   *
+   * @param initialCapacity
+   */
+  public ConcurrentHashTable(int initialCapacity) {
+    this(initialCapacity, 0.75f);
+  }
+
+  /**
+   * Initializes a new hash table with at least the specified initial capacity and the specified
+   * maximum load factor.
+   *
+   * <p>The capacity is rounded up to a power of two.
+   *
+   * @param initialCapacity
+   * @param loadFactor
+   * @throws IllegalArgumentException if the load factor is or is below 0.
+   */
+  public ConcurrentHashTable(int initialCapacity, float loadFactor) {
+    if (loadFactor <= 0) throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+
+    int capacity = Integer.highestOneBit(Math.max(initialCapacity - 1, 1)) << 1;
+
+    this.buckets = new AtomicReferenceArray<Node<K, V>>(capacity);
+    this.loadFactor = loadFactor;
+  }
+
+  /**
+   * Returns the number of key-value pairs in this hash table.
+   *
+   * <p>The count is exact when no other thread is modifying the table.
+   *
+   * @return the number of key-value pairs in this hash table
+   */
+  public int getLength() {
+    return (int) this.length.sum();
+  }
+
+  /**
+   * Returns the number of buckets in this hash table.
+   *
+   * @return the number of buckets in this hash table
+   */
+  public int getCapacity() {
+    return this.buckets.length();
+  }
+
+  /**
+   * Mixes the higher bits of a hash code into the lower bits, which are the only ones used to
+   * select a bucket, and clears the sign bit.
+   *
+   * @param hashCode
+   * @return the spread hash
+   */
+  static int spread(int hashCode) {
+    return (hashCode ^ (hashCode >>> 16)) & 0x7fffffff;
+  }
+
+  /**
+   * Puts a new key-value pair into this hash table.
+   *
+   * <p>If a node with the same key already exists, overrides the {@code value} field of that node
+   * only. Otherwise creates a new node.
+   *
+   * <p>If adding caused the hash table to exceed the maximum load factor, starts (or helps with) a
+   * resize to double the capacity.
+   *
+   * @param key
+   * @param value
+   */
+  public void put(K key, V value) {
+    int hash = spread(key.hashCode());
+    AtomicReferenceArray<Node<K, V>> buckets = this.buckets;
+
+    while (true) {
+      int index = hash & (buckets.length() - 1);
+      Node<K, V> first = buckets.get(index);
+
+      if (first == null) {
+        if (buckets.compareAndSet(index, null, new Node<K, V>(hash, key, value, null))) break;
+      } else if (first.hash == MOVED) {
+        buckets = this.transfer(((ForwardingNode<K, V>) first).resize);
+      } else {
+        synchronized (first) {
+          if (buckets.get(index) != first) continue;
+
+          Node<K, V> node = first;
+
+          while (true) {
+            if (node.hash == hash && node.key.equals(key)) { // A node with the same key exists
+              node.value = value;
+              return;
+            }
+
+            if (node.next != null) node = node.next;
+            else break;
+          }
+
+          node.next = new Node<K, V>(hash, key, value, null);
+          break;
+        }
+      }
+    }
+
+    this.length.increment();
+
+    if (this.length.sum() > (long) (buckets.length() * this.loadFactor)) this.expand(buckets);
+  }
+
+  /**
+   * Removes a key-value pair from this hash table, if it exists.
+   *
+   * @param key
+   * @return the value that was matched with the specified key in the hash table or {@code null} if
+   *     the key was not found in the table.
+   */
+  public V remove(K key) {
+    int hash = spread(key.hashCode());
+    AtomicReferenceArray<Node<K, V>> buckets = this.buckets;
+
+    while (true) {
+      int index = hash & (buckets.length() - 1);
+      Node<K, V> first = buckets.get(index);
+
+      if (first == null) {
+        return null;
+      } else if (first.hash == MOVED) {
+        buckets = this.transfer(((ForwardingNode<K, V>) first).resize);
+      } else {
+        synchronized (first) {
+          if (buckets.get(index) != first) continue;
+
+          Node<K, V> prevNode = null;
+
+          for (Node<K, V> node = first; node != null; prevNode = node, node = node.next) {
+            if (node.hash == hash && node.key.equals(key)) {
+              // Readers already on the removed node still see the rest of the chain.
+              if (prevNode == null) buckets.set(index, node.next);
+              else prevNode.next = node.next;
+
+              this.length.decrement();
+              return node.value;
+            }
+          }
+
+          return null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Retrieves the value in this table that corresponds to the specified key, without locking.
+   *
+   * @param key
+   * @return the value in this table that matches with the key, or {@code null} if such a value does
+   *     not exist in the table.
+   */
+  public V get(K key) {
+    int hash = spread(key.hashCode());
+    AtomicReferenceArray<Node<K, V>> buckets = this.buckets;
+
+    while (true) {
+      Node<K, V> node = buckets.get(hash & (buckets.length() - 1));
+
+      if (node != null && node.hash == MOVED) {
+        buckets = ((ForwardingNode<K, V>) node).resize.newBuckets;
+        continue;
+      }
+
+      for (; node != null; node = node.next)
+        if (node.hash == hash && node.key.equals(key)) return node.value;
+
+      return null;
+    }
+  }
+
+  /**
+   * Starts a resize of the specified buckets to double their capacity, or helps with the resize
+   * that is already in progress.
+   *
+   * @param buckets the buckets that exceeded the load factor
+   */
+  private void expand(AtomicReferenceArray<Node<K, V>> buckets) {
+    Resize<K, V> resize = this.resize.get();
+
+    if (resize == null) {
+      resize = new Resize<K, V>(buckets);
+
+      if (!this.resize.compareAndSet(null, resize)) {
+        resize = this.resize.get();
+      } else if (this.buckets != buckets) {
+        // Another resize finished since the buckets were read, so these are stale.
+        this.resize.compareAndSet(resize, null);
+        return;
+      }
+    }
+
+    if (resize != null) this.transfer(resize);
+  }
+
+  /**
+   * Claims and migrates ranges of old buckets until none are left to claim.
+   *
+   * <p>The thread that migrates the last bucket installs the new buckets.
+   *
+   * @param resize
+   * @return the new buckets of the resize
+   */
+  private AtomicReferenceArray<Node<K, V>> transfer(Resize<K, V> resize) {
+    int n = resize.oldBuckets.length();
+    int start;
+
+    while ((start = resize.claimIndex.getAndAdd(TRANSFER_STRIDE)) < n) {
+      int end = Math.min(start + TRANSFER_STRIDE, n);
+
+      for (int i = start; i < end; i++) this.transfer(resize, i);
+
+      if (resize.remaining.addAndGet(start - end) == 0) {
+        if (this.buckets == resize.oldBuckets) this.buckets = resize.newBuckets;
+        this.resize.compareAndSet(resize, null);
+      }
+    }
+
+    return resize.newBuckets;
+  }
+
+  /**
+   * Migrates one old bucket, splitting its chain between the buckets {@code index} and {@code
+   * index + n} of the new array, and replaces it with the forwarding node.
+   *
+   * <p>New nodes are created for the new array so that readers still walking the old chain are not
+   * affected.
+   *
+   * @param resize
+   * @param index
+   */
+  private void transfer(Resize<K, V> resize, int index) {
+    AtomicReferenceArray<Node<K, V>> oldBuckets = resize.oldBuckets;
+    int n = oldBuckets.length();
+
+    while (true) {
+      Node<K, V> first = oldBuckets.get(index);
+
+      if (first == null) {
+        if (oldBuckets.compareAndSet(index, null, resize.forwardingNode)) return;
+      } else if (first.hash == MOVED) {
+        return;
+      } else {
+        synchronized (first) {
+          if (oldBuckets.get(index) != first) continue;
+
+          Node<K, V> low = null;
+          Node<K, V> high = null;
+
+          for (Node<K, V> node = first; node != null; node = node.next) {
+            if ((node.hash & n) == 0) low = new Node<K, V>(node.hash, node.key, node.value, low);
+            else high = new Node<K, V>(node.hash, node.key, node.value, high);
+          }
+
+          resize.newBuckets.set(index, low);
+          resize.newBuckets.set(index + n, high);
+          oldBuckets.set(index, resize.forwardingNode);
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the clustering measure of this hash table, which tells us how (not) random the key
+   * distribution is.
+   *
+   * <p>The measure is only exact while no other thread is modifying the table.
+   *
+   * @return the clustering of this hash table
+   * @see HashTable#measureClustering()
+   */
+  public float measureClustering() {
+    AtomicReferenceArray<Node<K, V>> buckets = this.buckets;
+    int m = buckets.length();
+    float squaresSum = 0;
+    int n = 0;
+
+    for (int i = 0; i < m; i++) {
+      int numElements = 0; // Number of elements in this bucket
+      Node<K, V> node = buckets.get(i);
+
+      if (node != null && node.hash == MOVED) {
+        // Count the bucket as it was before being split.
+        AtomicReferenceArray<Node<K, V>> newBuckets =
+            ((ForwardingNode<K, V>) node).resize.newBuckets;
+
+        for (node = newBuckets.get(i); node != null; node = node.next) numElements++;
+        node = newBuckets.get(i + m);
+      }
+
+      for (; node != null; node = node.next) numElements++;
+
+      squaresSum += Math.pow(numElements, 2);
+      n += numElements;
+    }
+
+    // C = (m / (n - 1))((sum_i(x_i^2) / n) - 1) where x_i is the number of elements in bucket i.
+
+    return ((float) m / (n - 1)) * (squaresSum / n - 1);
+  }
+}
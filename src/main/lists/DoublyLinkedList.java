@@ -0,0 +1,239 @@
+/**
+ * Doubly linked list implementation.
+ *
+ * <p>Both ends of the list are linked to a single empty sentinel node, so every node has a previous
+ * and a next node and no operation needs a special case for the ends. The nodes returned by the
+ * insert methods can be kept as handles: removing or moving a node by its handle is O(1).
+ *
+ * <p>Optionally, removed nodes are kept in a pool of up to {@code poolCapacity} nodes and reused by
+ * later inserts, so a list whose length stays about the same (such as an eviction list) does not
+ * allocate. A removed node may then come back as another element's node, so handles must not be
+ * used once their node is removed.
+ *
+ * <p>Operations with their complexities are:
+ *
+ * <ul>
+ *   <li><code>get(int)</code>: O(n)
+ *   <li><code>insert(T, int)</code>: O(n)
+ *   <li><code>insertAtHead(T)</code>: O(1)
+ *   <li><code>insertAtTail(T)</code>: O(1)
+ *   <li><code>delete(int)</code>: O(n)
+ *   <li><code>deleteAtHead()</code>: O(1)
+ *   <li><code>deleteAtTail()</code>: O(1)
+ *   <li><code>removeNode(DoublyLinkedNode)</code>: O(1)
+ *   <li><code>moveToFront(DoublyLinkedNode)</code>: O(1)
+ *   <li><code>moveToBack(DoublyLinkedNode)</code>: O(1)
+ * </ul>
+ */
+public class DoublyLinkedList<T> {
+  DoublyLinkedNode<T> sentinel; // next is the head, prev is the tail
+  int length;
+  /** Removed nodes waiting to be reused, linked through {@code next}. */
+  DoublyLinkedNode<T> pool;
+  int pooledNodes;
+  /** The maximum number of removed nodes kept for reuse. Defaults to 0. */
+  int poolCapacity;
+
+  public DoublyLinkedList() {
+    this(0);
+  }
+
+  /**
+   * Initializes a new list.
+   *
+   * @param poolCapacity the maximum number of removed nodes kept for reuse
+   * @throws IllegalArgumentException if the pool capacity is negative.
+   */
+  public DoublyLinkedList(int poolCapacity) {
+    if (poolCapacity < 0)
+      throw new IllegalArgumentException("Illegal pool capacity: " + poolCapacity);
+
+    this.sentinel = new DoublyLinkedNode<T>(null, null, null);
+    this.sentinel.prev = this.sentinel.next = this.sentinel;
+    this.poolCapacity = poolCapacity;
+    this.length = 0;
+  }
+
+  public DoublyLinkedNode<T> getHead() {
+    return this.sentinel.next == this.sentinel ? null : this.sentinel.next;
+  }
+
+  public DoublyLinkedNode<T> getTail() {
+    return this.sentinel.prev == this.sentinel ? null : this.sentinel.prev;
+  }
+
+  public int getLength() {
+    return this.length;
+  }
+
+  public boolean isEmpty() {
+    return this.length == 0;
+  }
+
+  public int getPoolCapacity() {
+    return this.poolCapacity;
+  }
+
+  /**
+   * Returns the node after the specified one.
+   *
+   * @param node
+   * @return the next node, or {@code null} if the node is the tail
+   */
+  public DoublyLinkedNode<T> next(DoublyLinkedNode<T> node) {
+    return node.next == this.sentinel ? null : node.next;
+  }
+
+  /**
+   * Returns the node before the specified one.
+   *
+   * @param node
+   * @return the previous node, or {@code null} if the node is the head
+   */
+  public DoublyLinkedNode<T> prev(DoublyLinkedNode<T> node) {
+    return node.prev == this.sentinel ? null : node.prev;
+  }
+
+  /** Returns the node at the specified index, walking from the closer end. */
+  private DoublyLinkedNode<T> node(int index) {
+    DoublyLinkedNode<T> node = this.sentinel;
+
+    if (index < this.length / 2) for (int i = 0; i <= index; i++) node = node.next;
+    else for (int i = this.length; i > index; i--) node = node.prev;
+
+    return node;
+  }
+
+  public T get(int index) {
+    if (index < 0 || index >= this.length) throw new IndexOutOfBoundsException();
+
+    return this.node(index).data;
+  }
+
+  /** Links a new or pooled node between two adjacent nodes. */
+  private DoublyLinkedNode<T> link(T data, DoublyLinkedNode<T> prev, DoublyLinkedNode<T> next) {
+    DoublyLinkedNode<T> newNode = this.pool;
+
+    if (newNode != null) {
+      this.pool = newNode.next;
+      this.pooledNodes--;
+
+      newNode.data = data;
+      newNode.prev = prev;
+      newNode.next = next;
+    } else {
+      newNode = new DoublyLinkedNode<T>(data, prev, next);
+    }
+
+    prev.next = next.prev = newNode;
+
+    this.length++;
+    return newNode;
+  }
+
+  /** Unlinks a node from its neighbors, without touching its own links. */
+  private static <T> void unlink(DoublyLinkedNode<T> node) {
+    node.prev.next = node.next;
+    node.next.prev = node.prev;
+  }
+
+  public DoublyLinkedNode<T> insert(T data, int index) {
+    if (index < 0 || index > this.length) throw new IndexOutOfBoundsException();
+
+    DoublyLinkedNode<T> nextNode = index == this.length ? this.sentinel : this.node(index);
+
+    return this.link(data, nextNode.prev, nextNode);
+  }
+
+  public DoublyLinkedNode<T> insertAtHead(T data) {
+    return this.link(data, this.sentinel, this.sentinel.next);
+  }
+
+  public DoublyLinkedNode<T> insertAtTail(T data) {
+    return this.link(data, this.sentinel.prev, this.sentinel);
+  }
+
+  /**
+   * Removes a node from this list by its handle. The node must belong to this list.
+   *
+   * <p>The node is returned to the pool if it is not full, so the handle must not be used again.
+   *
+   * @param node
+   * @return the element of the node
+   */
+  public T removeNode(DoublyLinkedNode<T> node) {
+    T removedData = node.data;
+
+    unlink(node);
+
+    if (this.pooledNodes < this.poolCapacity) {
+      node.data = null;
+      node.prev = null;
+      node.next = this.pool;
+
+      this.pool = node;
+      this.pooledNodes++;
+    }
+
+    this.length--;
+    return removedData;
+  }
+
+  public T delete(int index) {
+    if (index < 0 || index >= this.length) throw new IndexOutOfBoundsException();
+
+    return this.removeNode(this.node(index));
+  }
+
+  /**
+   * Deletes the head of this list.
+   *
+   * @return the element of the head, or {@code null} if the list is empty
+   */
+  public T deleteAtHead() {
+    return this.length == 0 ? null : this.removeNode(this.sentinel.next);
+  }
+
+  /**
+   * Deletes the tail of this list.
+   *
+   * @return the element of the tail, or {@code null} if the list is empty
+   */
+  public T deleteAtTail() {
+    return this.length == 0 ? null : this.removeNode(this.sentinel.prev);
+  }
+
+  /**
+   * Moves a node of this list to the head, without allocating.
+   *
+   * @param node
+   * @return the node
+   */
+  public DoublyLinkedNode<T> moveToFront(DoublyLinkedNode<T> node) {
+    if (this.sentinel.next == node) return node;
+
+    unlink(node);
+
+    node.prev = this.sentinel;
+    node.next = this.sentinel.next;
+    this.sentinel.next = node.next.prev = node;
+    return node;
+  }
+
+  /**
+   * Moves a node of this list to the tail, without allocating.
+   *
+   * @param node
+   * @return the node
+   */
+  public DoublyLinkedNode<T> moveToBack(DoublyLinkedNode<T> node) {
+    if (this.sentinel.prev == node) return node;
+
+    unlink(node);
+
+    node.next = this.sentinel;
+    node.prev = this.sentinel.prev;
+    this.sentinel.prev = node.prev.next = node;
+    return node;
+  }
+}
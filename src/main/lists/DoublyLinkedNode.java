@@ -0,0 +1,11 @@
+class DoublyLinkedNode<T> {
+  public T data;
+  protected DoublyLinkedNode<T> prev;
+  protected DoublyLinkedNode<T> next;
+
+  protected DoublyLinkedNode(T data, DoublyLinkedNode<T> prev, DoublyLinkedNode<T> next) {
+    this.data = data;
+    this.prev = prev;
+    this.next = next;
+  }
+}
@@ -1,21 +1,42 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * A dynamic array implementation based on a fixed-size array.
  *
+ * <p>Elements are shifted and copied with {@code System.arraycopy}. How much the capacity grows is
+ * decided by a pluggable growth policy, which defaults to doubling.
+ *
  * <p>Operations with their time complexities are:
  *
  * <ul>
  *   <li><code>shrinkCapacity()</code>: O(n)
  *   <li><code>growCapacity()</code>: O(n)
+ *   <li><code>ensureCapacity(int)</code>: O(n)
  *   <li><code>append(T)</code>: O(1)
  *   <li><code>insert(T, int)</code>: O(n)
+ *   <li><code>insertAll(int, T[])</code>: O(n + k)
  *   <li><code>remove()</code>: O(1)
  *   <li><code>remove(int)</code>: O(n)
+ *   <li><code>removeRange(int, int)</code>: O(n)
  *   <li><code>get</code>: O(1)
  * </ul>
  */
-public class DynamicArray<T> {
+public class DynamicArray<T> implements Iterable<T> {
   Object[] array; // The underlying fixed-size array
   int length; // The number of elements in this array
+  /**
+   * Returns the new capacity given the current capacity and the minimum capacity needed.
+   *
+   * @see GrowthPolicies
+   */
+  IntBinaryOperator growthPolicy = new GrowthPolicies.Doubling();
 
   public DynamicArray() {
     this.array = new Object[10];
@@ -39,53 +60,165 @@ public class DynamicArray<T> {
     return this.length == 0;
   }
 
-  public DynamicArray<T> shrinkCapacity() {
-    Object[] newArray = new Object[this.length];
+  public IntBinaryOperator getGrowthPolicy() {
+    return this.growthPolicy;
+  }
 
-    for (int i = 0; i < this.length; i++) newArray[i] = this.array[i];
+  /**
+   * Sets how this array grows when it runs out of capacity.
+   *
+   * @param growthPolicy
+   * @see GrowthPolicies
+   */
+  public void setGrowthPolicy(IntBinaryOperator growthPolicy) {
+    this.growthPolicy = growthPolicy;
+  }
 
-    this.array = newArray;
+  public DynamicArray<T> shrinkCapacity() {
+    this.array = Arrays.copyOf(this.array, this.length);
     return this;
   }
 
+  /**
+   * Shrinks the capacity to the length. Same as {@link #shrinkCapacity()}.
+   *
+   * @return this array
+   */
+  public DynamicArray<T> trimToSize() {
+    return this.shrinkCapacity();
+  }
+
+  /**
+   * Grows the capacity once according to the growth policy, by at least one element even if the
+   * capacity is 0.
+   *
+   * @return this array
+   */
   public DynamicArray<T> growCapacity() {
-    Object[] newArray = new Object[this.array.length * 2];
+    return this.grow(this.array.length + 1);
+  }
 
-    for (int i = 0; i < this.length; i++) newArray[i] = this.array[i];
+  /**
+   * Grows the capacity, if needed, so that it can hold at least the specified number of elements
+   * without growing again.
+   *
+   * @param minimumCapacity
+   * @return this array
+   */
+  public DynamicArray<T> ensureCapacity(int minimumCapacity) {
+    if (minimumCapacity > this.array.length) this.grow(minimumCapacity);
 
-    this.array = newArray;
+    return this;
+  }
+
+  private DynamicArray<T> grow(int minimumCapacity) {
+    int newCapacity = this.growthPolicy.applyAsInt(this.array.length, minimumCapacity);
+
+    this.array = Arrays.copyOf(this.array, Math.max(newCapacity, minimumCapacity));
     return this;
   }
 
   public DynamicArray<T> append(T data) {
-    if (this.length + 1 > this.array.length) this.growCapacity();
+    if (this.length + 1 > this.array.length) this.grow(this.length + 1);
 
     this.array[this.length++] = data;
     return this;
   }
 
   public DynamicArray<T> insert(T data, int index) {
-    if (this.length + 1 > this.array.length) this.growCapacity();
+    if (this.length + 1 > this.array.length) this.grow(this.length + 1);
 
-    for (int i = this.length++; i > index; i--) this.array[i] = this.array[i - 1];
+    System.arraycopy(this.array, index, this.array, index + 1, this.length++ - index);
 
     this.array[index] = data;
     return this;
   }
 
+  /**
+   * Inserts the elements of an array at the specified index, growing at most once and shifting the
+   * following elements only once.
+   *
+   * @param index
+   * @param source
+   * @return this array
+   */
+  public DynamicArray<T> insertAll(int index, T[] source) {
+    this.ensureCapacity(this.length + source.length);
+
+    System.arraycopy(this.array, index, this.array, index + source.length, this.length - index);
+    System.arraycopy(source, 0, this.array, index, source.length);
+
+    this.length += source.length;
+    return this;
+  }
+
   public DynamicArray<T> remove() {
     this.array[--this.length] = null;
     return this;
   }
 
   public DynamicArray<T> remove(int index) {
-    for (int i = index + 1; i < this.length; i++) this.array[i - 1] = this.array[i];
+    System.arraycopy(this.array, index + 1, this.array, index, this.length - index - 1);
 
     return this.remove();
   }
 
+  /**
+   * Removes the elements from index {@code from} (inclusive) to {@code to} (exclusive), shifting
+   * the following elements only once.
+   *
+   * @param from
+   * @param to
+   * @return this array
+   */
+  public DynamicArray<T> removeRange(int from, int to) {
+    System.arraycopy(this.array, to, this.array, from, this.length - to);
+
+    int newLength = this.length - (to - from);
+    Arrays.fill(this.array, newLength, this.length, null);
+
+    this.length = newLength;
+    return this;
+  }
+
   @SuppressWarnings("unchecked")
   public T get(int index) {
     return (T) this.array[index];
   }
+
+  /**
+   * Returns a spliterator over the elements of this array, which splits by halving the index range.
+   *
+   * <p>The array must not be modified during the traversal.
+   *
+   * @return a spliterator over the elements
+   */
+  public Spliterator<T> spliterator() {
+    return Spliterators.spliterator(this.array, 0, this.length, Spliterator.ORDERED);
+  }
+
+  public Iterator<T> iterator() {
+    return Spliterators.iterator(this.spliterator());
+  }
+
+  public Stream<T> stream() {
+    return StreamSupport.stream(this.spliterator(), false);
+  }
+
+  public Stream<T> parallelStream() {
+    return StreamSupport.stream(this.spliterator(), true);
+  }
+
+  /**
+   * Calls an action on every element of this array, in parallel on the common {@code
+   * ForkJoinPool}.
+   *
+   * <p>The action must be safe to call from several threads at once, and the array must not be
+   * modified until this returns.
+   *
+   * @param action
+   */
+  public void forEachParallel(Consumer<? super T> action) {
+    this.parallelStream().forEach(action);
+  }
 }
@@ -0,0 +1,91 @@
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Growth policies for {@link DynamicArray}.
+ *
+ * <p>A growth policy takes the current capacity and the minimum capacity needed, and returns the
+ * new capacity. The array never grows to less than the minimum capacity, whatever the policy
+ * returns.
+ *
+ * @see DynamicArray#setGrowthPolicy(IntBinaryOperator)
+ */
+public class GrowthPolicies {
+  /** Doubles the capacity. Fewest copies, up to 50% unused space. */
+  public static class Doubling implements IntBinaryOperator {
+    public int applyAsInt(int capacity, int minimumCapacity) {
+      return Math.max(capacity * 2, minimumCapacity);
+    }
+  }
+
+  /** Multiplies the capacity by a factor such as 1.5, trading more copies for less unused space. */
+  public static class Factor implements IntBinaryOperator {
+    double factor;
+
+    /**
+     * @param factor
+     * @throws IllegalArgumentException if the factor is not greater than 1.
+     */
+    public Factor(double factor) {
+      if (factor <= 1) throw new IllegalArgumentException("Illegal growth factor: " + factor);
+
+      this.factor = factor;
+    }
+
+    public int applyAsInt(int capacity, int minimumCapacity) {
+      return Math.max((int) Math.min(capacity * this.factor, Integer.MAX_VALUE), minimumCapacity);
+    }
+  }
+
+  /**
+   * Adds a fixed number of slots. At most that much unused space, but appending n elements is
+   * O(n^2) overall.
+   */
+  public static class FixedChunk implements IntBinaryOperator {
+    int chunk;
+
+    /**
+     * @param chunk
+     * @throws IllegalArgumentException if the chunk is below 1.
+     */
+    public FixedChunk(int chunk) {
+      if (chunk < 1) throw new IllegalArgumentException("Illegal chunk size: " + chunk);
+
+      this.chunk = chunk;
+    }
+
+    public int applyAsInt(int capacity, int minimumCapacity) {
+      return Math.max(capacity + this.chunk, minimumCapacity);
+    }
+  }
+
+  /**
+   * Grows as another policy does, but by no more than a maximum number of slots at a time, which
+   * bounds the unused space of very large arrays.
+   */
+  public static class Capped implements IntBinaryOperator {
+    IntBinaryOperator policy;
+    int maximumIncrement;
+
+    /**
+     * @param policy
+     * @param maximumIncrement
+     * @throws IllegalArgumentException if the maximum increment is below 1.
+     */
+    public Capped(IntBinaryOperator policy, int maximumIncrement) {
+      if (maximumIncrement < 1)
+        throw new IllegalArgumentException("Illegal maximum increment: " + maximumIncrement);
+
+      this.policy = policy;
+      this.maximumIncrement = maximumIncrement;
+    }
+
+    public int applyAsInt(int capacity, int minimumCapacity) {
+      int newCapacity = this.policy.applyAsInt(capacity, minimumCapacity);
+
+      if (newCapacity - capacity > this.maximumIncrement)
+        newCapacity = capacity + this.maximumIncrement;
+
+      return Math.max(newCapacity, minimumCapacity);
+    }
+  }
+}
@@ -1,6 +1,42 @@
+import java.util.Random;
+import java.util.function.IntSupplier;
 import java.util.function.ToIntFunction;
 
 public class HashFunctions {
+  /**
+   * The murmur3 32-bit finalizer, which mixes every bit of the hash code into every bit of the
+   * result.
+   *
+   * @param h
+   * @return the mixed hash code
+   */
+  public static int fmix32(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  /**
+   * Maps a 32-bit hash to an index between 0 (inclusive) and the capacity (exclusive) without
+   * integer division.
+   *
+   * <p>Power-of-two capacities are masked, keeping the low bits of the hash. Other capacities use
+   * the high half of the 64-bit product of the hash and the capacity (Lemire's "fast range"), which
+   * keeps the high bits.
+   *
+   * @param h
+   * @param capacity
+   * @return the index
+   */
+  public static int reduce(int h, int capacity) {
+    if ((capacity & (capacity - 1)) == 0) return h & (capacity - 1);
+
+    return (int) (((h & 0xffffffffL) * capacity) >>> 32);
+  }
+
   public static class ModularHash implements ToIntFunction<Integer> {
     int m;
 
@@ -9,7 +45,7 @@ public class HashFunctions {
     }
 
     public int applyAsInt(Integer k) {
-      return k % this.m;
+      return Math.floorMod(k, this.m);
     }
   }
 
@@ -21,7 +57,89 @@ public class HashFunctions {
     }
 
     public int applyAsInt(Integer k) {
-      return k % this.hashTable.getCapacity();
+      return Math.floorMod(k, this.hashTable.getCapacity());
+    }
+  }
+
+  /**
+   * Mixes the hash code with the murmur3 finalizer, then reduces it to the capacity of a table.
+   *
+   * <p>Sequential and patterned hash codes (such as those of {@code Integer} keys) are spread over
+   * all buckets.
+   *
+   * @see #fmix32(int)
+   */
+  public static class MurmurHash implements ToIntFunction<Integer> {
+    IntSupplier capacity;
+
+    public MurmurHash(HashTable<?, ?> hashTable) {
+      this(hashTable::getCapacity);
+    }
+
+    public MurmurHash(IntSupplier capacity) {
+      this.capacity = capacity;
+    }
+
+    public int applyAsInt(Integer k) {
+      return reduce(fmix32(k), this.capacity.getAsInt());
+    }
+  }
+
+  /**
+   * Fibonacci (multiplicative) hashing: multiplies the hash code by 2^32 divided by the golden
+   * ratio and keeps the high bits of the product.
+   *
+   * <p>This is a single multiplication and shift per key. For a power-of-two capacity 2^b it is the
+   * classic {@code (k * 0x9e3779b9) >>> (32 - b)}.
+   */
+  public static class FibonacciHash implements ToIntFunction<Integer> {
+    IntSupplier capacity;
+
+    public FibonacciHash(HashTable<?, ?> hashTable) {
+      this(hashTable::getCapacity);
+    }
+
+    public FibonacciHash(IntSupplier capacity) {
+      this.capacity = capacity;
+    }
+
+    public int applyAsInt(Integer k) {
+      // Always keep the high bits, which are the well-mixed ones.
+      return (int) (((k * 0x9e3779b9 & 0xffffffffL) * this.capacity.getAsInt()) >>> 32);
+    }
+  }
+
+  /**
+   * Simple tabulation hashing: XORs together one random table entry per byte of the hash code.
+   *
+   * <p>Tabulation hashing is 3-independent, so it behaves like a random hash function for linear
+   * probing and chaining even on adversarial key sets. The four tables take 4 KiB.
+   */
+  public static class TabulationHash implements ToIntFunction<Integer> {
+    IntSupplier capacity;
+    int[][] tables = new int[4][256];
+
+    public TabulationHash(HashTable<?, ?> hashTable) {
+      this(hashTable::getCapacity, new Random().nextLong());
+    }
+
+    public TabulationHash(IntSupplier capacity, long seed) {
+      Random random = new Random(seed);
+
+      for (int[] table : this.tables)
+        for (int i = 0; i < table.length; i++) table[i] = random.nextInt();
+
+      this.capacity = capacity;
+    }
+
+    public int applyAsInt(Integer k) {
+      int h =
+          this.tables[0][k & 0xff]
+              ^ this.tables[1][(k >>> 8) & 0xff]
+              ^ this.tables[2][(k >>> 16) & 0xff]
+              ^ this.tables[3][k >>> 24];
+
+      return reduce(h, this.capacity.getAsInt());
     }
   }
 }
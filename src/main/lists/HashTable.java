@@ -1,4 +1,16 @@
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /** A special (singly) linked list node class for hash tables. */
 class HashTableNode<K, V> {
@@ -13,6 +25,259 @@ class HashTableNode<K, V> {
   }
 }
 
+/**
+ * A balanced (AVL) binary search tree that replaces the linked list of a hash table bucket once it
+ * grows too long.
+ *
+ * <p>Nodes are ordered by the hash codes of their keys, then by {@code compareTo} if the keys are
+ * mutually {@code Comparable}, then by class name and identity hash code. Keys with equal hash
+ * codes that cannot be compared may lie on either side of each other, so a lookup searches both
+ * subtrees in that (rare) case. Every operation is O(log n) as long as hash codes or {@code
+ * compareTo} distinguish the keys.
+ *
+ * @see HashTable#TREEIFY_THRESHOLD
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+class HashTableTree<K, V> {
+  /** A tree node, which is also a hash table node so lookups return the same type for both. */
+  static class Node<K, V> extends HashTableNode<K, V> {
+    final int hash;
+    Node<K, V> left;
+    Node<K, V> right;
+    int height = 1;
+
+    Node(K key, V value) {
+      super(key, value, null);
+      this.hash = key.hashCode();
+    }
+  }
+
+  Node<K, V> root;
+  /** The number of nodes in this tree. */
+  int size;
+
+  /**
+   * Builds a tree from a chain of hash table nodes.
+   *
+   * @param chain the first node of the chain
+   */
+  HashTableTree(HashTableNode<K, V> chain) {
+    for (HashTableNode<K, V> node = chain; node != null; node = node.next)
+      this.put(node.key, node.value);
+  }
+
+  /**
+   * Returns a new chain of hash table nodes with the key-value pairs of this tree, in order.
+   *
+   * @return the first node of the chain
+   */
+  HashTableNode<K, V> toChain() {
+    return toChain(this.root, null);
+  }
+
+  private static <K, V> HashTableNode<K, V> toChain(Node<K, V> node, HashTableNode<K, V> rest) {
+    if (node == null) return rest;
+
+    rest = toChain(node.right, rest);
+    rest = new HashTableNode<K, V>(node.key, node.value, rest);
+    return toChain(node.left, rest);
+  }
+
+  /**
+   * Calls the visitor on every key-value pair of this tree, in order.
+   *
+   * @param visitor
+   */
+  <X extends Exception> void visit(HashTable.EntryVisitor<K, V, X> visitor) throws X {
+    visit(this.root, visitor);
+  }
+
+  private static <K, V, X extends Exception> void visit(
+      Node<K, V> node, HashTable.EntryVisitor<K, V, X> visitor) throws X {
+    if (node == null) return;
+
+    visit(node.left, visitor);
+    visitor.visit(node.key, node.value);
+    visit(node.right, visitor);
+  }
+
+  /**
+   * Returns the node with the specified key.
+   *
+   * @param key
+   * @return the node with the key, or {@code null} if the key is not in this tree.
+   */
+  Node<K, V> find(K key) {
+    return find(this.root, key.hashCode(), key);
+  }
+
+  private static <K, V> Node<K, V> find(Node<K, V> node, int hash, K key) {
+    while (node != null) {
+      if (hash < node.hash) node = node.left;
+      else if (hash > node.hash) node = node.right;
+      else if (key.equals(node.key)) return node;
+      else {
+        int c = compareComparables(key, node.key);
+
+        if (c < 0) node = node.left;
+        else if (c > 0) node = node.right;
+        else {
+          // The key could have been placed on either side by the tie-break.
+          Node<K, V> found = find(node.right, hash, key);
+          if (found != null) return found;
+
+          node = node.left;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Puts a key-value pair into this tree.
+   *
+   * @param key
+   * @param value
+   * @return {@code true} if a new node was created, {@code false} if an existing node was
+   *     overridden.
+   */
+  boolean put(K key, V value) {
+    Node<K, V> node = this.find(key);
+
+    if (node != null) {
+      node.value = value;
+      return false;
+    }
+
+    this.root = insert(this.root, new Node<K, V>(key, value));
+    this.size++;
+    return true;
+  }
+
+  /**
+   * Removes the node with the specified key from this tree, if it exists.
+   *
+   * @param key
+   * @return the removed node, or {@code null} if the key is not in this tree.
+   */
+  Node<K, V> remove(K key) {
+    Node<K, V> node = this.find(key);
+
+    if (node == null) return null;
+
+    this.root = remove(this.root, node);
+    this.size--;
+    return node;
+  }
+
+  private static <K, V> Node<K, V> insert(Node<K, V> node, Node<K, V> newNode) {
+    if (node == null) return newNode;
+
+    if (order(newNode, node) < 0) node.left = insert(node.left, newNode);
+    else node.right = insert(node.right, newNode);
+
+    return balance(node);
+  }
+
+  private static <K, V> Node<K, V> remove(Node<K, V> node, Node<K, V> target) {
+    if (node == null) return null;
+
+    if (node == target) {
+      if (node.left == null) return node.right;
+      if (node.right == null) return node.left;
+
+      // Replace the node with its in-order successor.
+      Node<K, V> successor = node.right;
+      while (successor.left != null) successor = successor.left;
+
+      successor.right = remove(node.right, successor);
+      successor.left = node.left;
+      return balance(successor);
+    }
+
+    int c = order(target, node);
+
+    if (c < 0) node.left = remove(node.left, target);
+    else if (c > 0) node.right = remove(node.right, target);
+    else {
+      node.left = remove(node.left, target);
+      node.right = remove(node.right, target);
+    }
+
+    return balance(node);
+  }
+
+  private static int height(Node<?, ?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static <K, V> Node<K, V> balance(Node<K, V> node) {
+    int balance = height(node.left) - height(node.right);
+
+    if (balance > 1) {
+      if (height(node.left.left) < height(node.left.right)) node.left = rotateLeft(node.left);
+      return rotateRight(node);
+    }
+
+    if (balance < -1) {
+      if (height(node.right.right) < height(node.right.left)) node.right = rotateRight(node.right);
+      return rotateLeft(node);
+    }
+
+    node.height = Math.max(height(node.left), height(node.right)) + 1;
+    return node;
+  }
+
+  private static <K, V> Node<K, V> rotateLeft(Node<K, V> node) {
+    Node<K, V> pivot = node.right;
+    node.right = pivot.left;
+    pivot.left = node;
+
+    node.height = Math.max(height(node.left), height(node.right)) + 1;
+    pivot.height = Math.max(height(pivot.left), height(pivot.right)) + 1;
+    return pivot;
+  }
+
+  private static <K, V> Node<K, V> rotateRight(Node<K, V> node) {
+    Node<K, V> pivot = node.left;
+    node.left = pivot.right;
+    pivot.right = node;
+
+    node.height = Math.max(height(node.left), height(node.right)) + 1;
+    pivot.height = Math.max(height(pivot.left), height(pivot.right)) + 1;
+    return pivot;
+  }
+
+  /**
+   * Totally orders two nodes by hash code, then {@code compareTo}, then class name and identity
+   * hash code.
+   */
+  private static int order(Node<?, ?> a, Node<?, ?> b) {
+    if (a.hash != b.hash) return a.hash < b.hash ? -1 : 1;
+
+    int c = compareComparables(a.key, b.key);
+    if (c != 0) return c;
+
+    c = a.key.getClass().getName().compareTo(b.key.getClass().getName());
+    if (c != 0) return c;
+
+    return Integer.compare(System.identityHashCode(a.key), System.identityHashCode(b.key));
+  }
+
+  /**
+   * Compares two keys if they are of the same {@code Comparable} class.
+   *
+   * @return the result of {@code compareTo}, or 0 if the keys cannot be compared
+   */
+  private static int compareComparables(Object a, Object b) {
+    if (a instanceof Comparable && a.getClass() == b.getClass())
+      return ((Comparable) a).compareTo(b);
+
+    return 0;
+  }
+}
+
 /**
  * An implementation of the hash table data structure that uses chaining to resolve collisions.
  *
@@ -21,15 +286,28 @@ class HashTableNode<K, V> {
  * bucket is {@code null} if no key-value pair whose key hashes to the bucket's index has been
  * added.
  *
+ * <p>A bucket whose list grows longer than {@link #TREEIFY_THRESHOLD} is converted into a balanced
+ * {@code HashTableTree}, and back into a list once it shrinks to {@link #UNTREEIFY_THRESHOLD}.
+ *
  * <p>All operations ({@code put}, {@code remove}, and {@code get}) are O(1) at best (when the load
- * factor is good and the hash function is random) and O(n) at worst (when a hash function produces
- * highest clustering).
+ * factor is good and the hash function is random) and O(log n) at worst (when a hash function
+ * produces highest clustering, as long as the keys' hash codes or {@code compareTo} tell them
+ * apart).
  */
 @SuppressWarnings("unchecked")
-public class HashTable<K, V> {
+public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
+  /** The length a bucket's linked list must exceed for the bucket to be converted into a tree. */
+  static final int TREEIFY_THRESHOLD = 8;
+  /** The size at or below which a tree bucket is converted back into a linked list. */
+  static final int UNTREEIFY_THRESHOLD = 6;
+  /** The number of keys that bulk operations sort by bucket and process at a time. */
+  static final int BATCH_SIZE = 1024;
+  /** The number of buckets below which a parallel scan stops splitting and scans sequentially. */
+  static final int PARALLEL_BUCKETS = 1 << 12;
+
   /**
-   * The buckets of this hash table, each containing a singly linked list for storing data, or
-   * {@code null}.
+   * The buckets of this hash table, each containing a singly linked list or a {@code
+   * HashTableTree} for storing data, or {@code null}.
    */
   Object[] buckets;
   /**
@@ -49,8 +327,13 @@ public class HashTable<K, V> {
    *
    * <p>Hash function takes only one parameter, usually the number of buckets (also known as
    * capacity), and always returns an integer.
+   *
+   * <p>The default takes the hash code modulo the capacity. Mixing hash functions such as {@link
+   * HashFunctions.MurmurHash} spread sequential or patterned keys far better.
+   *
+   * @see HashFunctions
    */
-  ToIntFunction<Integer> hashFunction = k -> k % this.capacity; // h(k)
+  ToIntFunction<Integer> hashFunction = k -> Math.floorMod(k, this.capacity); // h(k)
   /** The number of key-value pairs that are stored by this hash table. */
   int length;
   /**
@@ -62,6 +345,46 @@ public class HashTable<K, V> {
    * @see #resize(int)
    */
   int capacity;
+  /**
+   * The buckets being migrated by an incremental resize, or {@code null} if no resize is in
+   * progress.
+   *
+   * @see #setRehashStep(int)
+   */
+  Object[] oldBuckets;
+  /** The index of the next bucket in {@code oldBuckets} to be migrated. */
+  int migrationIndex;
+  /**
+   * The number of old buckets migrated per operation while an incremental resize is in progress,
+   * or 0 if this hash table resizes all at once.
+   *
+   * @see #setRehashStep(int)
+   */
+  int rehashStep = 0;
+  /**
+   * Whether the capacity of this hash table is kept at a power of two, so that hash functions can
+   * mask instead of dividing.
+   *
+   * @see #setPowerOfTwoCapacity(boolean)
+   */
+  boolean powerOfTwoCapacity = false;
+  /**
+   * The metrics this hash table records as it is used, or {@code null} if it does not record any.
+   *
+   * @see #setMetrics(HashTableMetrics)
+   */
+  HashTableMetrics metrics;
+  /** The number of keys compared by the last walk of a bucket, counted only with metrics. */
+  int walkLength;
+
+  /**
+   * Receives the key-value pairs of a hash table one by one, and may throw a checked exception.
+   *
+   * @see HashTable#visit(EntryVisitor)
+   */
+  interface EntryVisitor<K, V, X extends Exception> {
+    void visit(K key, V value) throws X;
+  }
 
   /** Initializes a new hash table with 16 buckets and a maximum load factor of 0.75. */
   public HashTable() {
@@ -131,6 +454,144 @@ public class HashTable<K, V> {
     this.hashFunction = hashFunction;
   }
 
+  /**
+   * Returns the number of old buckets migrated per operation during a resize.
+   *
+   * @return the rehash step of this hash table, or 0 if resizing is done all at once
+   */
+  public int getRehashStep() {
+    return this.rehashStep;
+  }
+
+  /**
+   * Sets the number of old buckets migrated per operation during a resize.
+   *
+   * <p>With a rehash step of 0 (the default), a {@code put} that exceeds the load factor rehashes
+   * every node at once. With a positive step k, it only allocates the new buckets; the old buckets
+   * are kept alongside them and each subsequent {@code put}, {@code get}, and {@code remove}
+   * migrates the next k old buckets. Lookups check both arrays until the migration completes, so
+   * no single operation pays more than O(k) for rehashing.
+   *
+   * <p>A step of 2 or more guarantees that a migration finishes before the table doubles again.
+   *
+   * @param rehashStep
+   * @throws IllegalArgumentException if the rehash step is negative.
+   */
+  public void setRehashStep(int rehashStep) {
+    if (rehashStep < 0) throw new IllegalArgumentException("Illegal rehash step: " + rehashStep);
+
+    this.rehashStep = rehashStep;
+  }
+
+  /**
+   * Returns whether the capacity of this hash table is kept at a power of two.
+   *
+   * @return {@code true} if every resize rounds the capacity up to a power of two
+   */
+  public boolean isPowerOfTwoCapacity() {
+    return this.powerOfTwoCapacity;
+  }
+
+  /**
+   * Sets whether the capacity of this hash table is kept at a power of two.
+   *
+   * <p>If enabled, the current capacity is rounded up to a power of two right away and so is every
+   * later resize. The hash functions in {@link HashFunctions} then reduce hashes with a bit mask
+   * instead of an integer division.
+   *
+   * @param powerOfTwoCapacity
+   */
+  public void setPowerOfTwoCapacity(boolean powerOfTwoCapacity) {
+    this.powerOfTwoCapacity = powerOfTwoCapacity;
+
+    if (powerOfTwoCapacity && (this.capacity & (this.capacity - 1)) != 0)
+      this.resize(this.capacity);
+  }
+
+  /**
+   * Returns the metrics this hash table records into.
+   *
+   * @return the attached metrics, or {@code null} if this table does not record any
+   * @see #setMetrics(HashTableMetrics)
+   */
+  public HashTableMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Starts or stops recording metrics about this hash table.
+   *
+   * <p>Attaching metrics finishes any incremental resize and scans every bucket once to initialize
+   * the sum of squares behind {@link HashTableMetrics#getClustering()}. From then on, each {@code
+   * get} and {@code put} counts the keys it compares while it walks its bucket, and each removal
+   * of a chained node counts the nodes of its bucket while it searches, so no operation walks a
+   * bucket more than it already does.
+   *
+   * @param metrics the metrics to record into, or {@code null} to stop recording
+   */
+  public void setMetrics(HashTableMetrics metrics) {
+    if (metrics != null) {
+      this.finishRehash();
+
+      metrics.table = this;
+      metrics.squaresSum.set(this.sumOfSquares());
+    }
+
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the number of key-value pairs in a bucket.
+   *
+   * @param bucket
+   * @return the length of the bucket's linked list or the size of its tree
+   */
+  private static int bucketLength(Object bucket) {
+    if (bucket instanceof HashTableTree) return ((HashTableTree<?, ?>) bucket).size;
+
+    int length = 0;
+
+    for (HashTableNode<?, ?> node = (HashTableNode<?, ?>) bucket; node != null; node = node.next)
+      length++;
+
+    return length;
+  }
+
+  /**
+   * Returns whether an incremental resize is in progress.
+   *
+   * @return {@code true} if old buckets are still being migrated
+   */
+  public boolean isRehashing() {
+    return this.oldBuckets != null;
+  }
+
+  /**
+   * Calls the visitor on every key-value pair, bucket by bucket, without allocating.
+   *
+   * <p>If an incremental resize is in progress, the pairs still in the old buckets are visited last
+   * and the resize is not finished.
+   *
+   * @param visitor
+   */
+  <X extends Exception> void visit(EntryVisitor<K, V, X> visitor) throws X {
+    this.visit(this.buckets, visitor);
+    if (this.oldBuckets != null) this.visit(this.oldBuckets, visitor);
+  }
+
+  private <X extends Exception> void visit(Object[] buckets, EntryVisitor<K, V, X> visitor)
+      throws X {
+    for (Object bucket : buckets) {
+      if (bucket instanceof HashTableTree) {
+        ((HashTableTree<K, V>) bucket).visit(visitor);
+      } else {
+        HashTableNode<K, V> node = (HashTableNode<K, V>) bucket;
+
+        for (; node != null; node = node.next) visitor.visit(node.key, node.value);
+      }
+    }
+  }
+
   /**
    * Puts a {@code HashTableNode} into the specified array of buckets.
    *
@@ -155,22 +616,50 @@ public class HashTable<K, V> {
 
     if (buckets[index] == null) {
       buckets[index] = newNode;
+
+      if (this.metrics != null) {
+        this.metrics.addSquares(1);
+        this.walkLength = 0;
+      }
+      return true;
+    } else if (buckets[index] instanceof HashTableTree) {
+      HashTableTree<K, V> tree = (HashTableTree<K, V>) buckets[index];
+
+      if (this.metrics != null) this.walkLength = tree.size;
+      if (!tree.put(newNode.key, newNode.value)) return false;
+
+      // The tree grew from size - 1 to size: the square grows by 2 * size - 1.
+      if (this.metrics != null) this.metrics.addSquares(2L * tree.size - 1);
       return true;
     } else {
       HashTableNode<K, V> node = (HashTableNode<K, V>) buckets[index];
+      int chainLength = 1;
 
       while (true) {
         if (node.key.equals(newNode.key)) { // A node with the same key exists
           node.value = newNode.value;
+
+          if (this.metrics != null) this.walkLength = chainLength;
           return false;
         }
 
         // Otherwise move to the end of the linked list
         if (node.next != null) node = node.next;
         else break;
+
+        chainLength++;
       }
 
       node.next = newNode;
+
+      if (this.metrics != null) {
+        this.metrics.addSquares(2L * chainLength + 1);
+        this.walkLength = chainLength;
+      }
+
+      if (chainLength >= TREEIFY_THRESHOLD)
+        buckets[index] = new HashTableTree<K, V>((HashTableNode<K, V>) buckets[index]);
+
       return true;
     }
   }
@@ -192,8 +681,16 @@ public class HashTable<K, V> {
     // Double in size if the load factor would be exceeded.
     if ((float) (this.length + 1) / this.capacity > this.loadFactor) this.expand();
 
+    if (this.oldBuckets != null) {
+      // Move the key's old bucket first so the key cannot end up in both arrays.
+      this.migrate(this.oldIndexOf(key));
+      this.rehash();
+    }
+
     // Increase the length only if a node was created (as oppossed to overridden)
     if (this.put(new HashTableNode<K, V>(key, value, null), this.buckets)) this.length++;
+
+    if (this.metrics != null) this.metrics.recordAccess(this.walkLength);
   }
 
   /**
@@ -204,32 +701,95 @@ public class HashTable<K, V> {
    *     the key was not found in the table.
    */
   public V remove(K key) {
-    int index = this.hashFunction.applyAsInt(key.hashCode());
-    HashTableNode<K, V> node = (HashTableNode<K, V>) this.buckets[index];
+    if (this.oldBuckets != null) {
+      this.rehash();
+
+      if (this.oldBuckets != null) {
+        HashTableNode<K, V> removedNode = this.remove(key, this.oldBuckets, this.oldIndexOf(key));
+        if (removedNode != null) return removedNode.value;
+      }
+    }
+
+    HashTableNode<K, V> removedNode =
+        this.remove(key, this.buckets, this.hashFunction.applyAsInt(key.hashCode()));
+
+    return removedNode == null ? null : removedNode.value;
+  }
+
+  /**
+   * Unlinks the node with the specified key from a bucket of the specified array of buckets.
+   *
+   * @param key
+   * @param buckets
+   * @param index the index of the bucket the key hashes to
+   * @return the removed node, or {@code null} if the key was not found in the bucket.
+   */
+  private HashTableNode<K, V> remove(K key, Object[] buckets, int index) {
+    if (buckets[index] instanceof HashTableTree) {
+      HashTableTree<K, V> tree = (HashTableTree<K, V>) buckets[index];
+      HashTableNode<K, V> removedNode = tree.remove(key);
+
+      if (removedNode == null) return null;
+
+      // The tree shrank from size + 1 to size: the square shrinks by 2 * size + 1.
+      if (this.metrics != null) this.metrics.addSquares(-(2L * tree.size + 1));
+
+      if (tree.size <= UNTREEIFY_THRESHOLD) buckets[index] = tree.toChain();
+
+      this.length--;
+      return removedNode;
+    }
+
+    HashTableNode<K, V> node = (HashTableNode<K, V>) buckets[index];
 
     if (node == null) return null;
 
     if (node.key.equals(key)) {
-      this.buckets[index] = node.next;
+      buckets[index] = node.next;
+
+      if (this.metrics != null) this.removedFromChain(node.next, 0);
 
       this.length--;
-      return node.value;
+      return node;
     }
 
+    // The number of nodes before node.next, counted for the metrics.
+    int position = 1;
+
     while (node.next != null) {
       if (node.next.key.equals(key)) {
-        node.next = node.next.next;
+        HashTableNode<K, V> removedNode = node.next;
+        node.next = removedNode.next;
+
+        if (this.metrics != null) this.removedFromChain(removedNode.next, position);
 
         this.length--;
-        return node.next.value;
+        return removedNode;
       }
 
       node = node.next;
+      position++;
     }
 
     return null;
   }
 
+  /**
+   * Updates the sum of squares after a node was unlinked from a chain, by counting the nodes after
+   * it. The nodes before it were counted by the search that found it.
+   *
+   * @param rest the node that followed the removed node
+   * @param position the number of nodes before the removed node
+   */
+  private void removedFromChain(HashTableNode<K, V> rest, int position) {
+    int length = position;
+
+    for (; rest != null; rest = rest.next) length++;
+
+    // The chain shrank from length + 1 to length: the square shrinks by 2 * length + 1.
+    this.metrics.addSquares(-(2L * length + 1));
+  }
+
   /**
    * Retrieves the value in this table that corresponds to the specified key.
    *
@@ -238,46 +798,718 @@ public class HashTable<K, V> {
    *     not exist in the table.
    */
   public V get(K key) {
-    int index = this.hashFunction.applyAsInt(key.hashCode());
-    HashTableNode<K, V> node = (HashTableNode<K, V>) this.buckets[index];
+    HashTableNode<K, V> node = null;
 
-    while (node != null) {
-      if (node.key.equals(key)) return node.value;
+    if (this.oldBuckets != null) this.rehash();
 
-      node = node.next;
+    // Reset after rehashing, whose migrations set the walk length of the chains they move.
+    this.walkLength = 0;
+
+    if (this.oldBuckets != null) node = this.find(key, this.oldBuckets[this.oldIndexOf(key)]);
+
+    if (node == null)
+      node = this.find(key, this.buckets[this.hashFunction.applyAsInt(key.hashCode())]);
+
+    if (this.metrics != null) {
+      // Only the buckets that were searched were counted.
+      this.metrics.recordAccess(this.walkLength);
+      this.metrics.recordGet(node != null);
     }
 
-    return null;
+    return node == null ? null : node.value;
   }
 
   /**
-   * Resizes this hash table to a new capacity, rehashing and copying all existing key-value pairs
-   * to a new array.
-   *
-   * <p>Copying is done by creating new references to the existing nodes instead of creating new
-   * nodes to maintain a O(1) space usage.
+   * Resizes this hash table once, if needed, so that it can hold the specified number of key-value
+   * pairs without exceeding the maximum load factor.
    *
-   * @param newCapacity
+   * @param expectedLength
    */
-  private void resize(int newCapacity) {
-    Object[] newBuckets = new Object[this.capacity = newCapacity];
+  public void ensureCapacity(int expectedLength) {
+    int minimumCapacity = (int) Math.ceil(expectedLength / this.loadFactor);
 
-    for (Object bucket : this.buckets) {
-      HashTableNode<K, V> node = (HashTableNode<K, V>) bucket;
+    if (minimumCapacity > this.capacity) this.resize(minimumCapacity);
+    else this.finishRehash();
+  }
 
-      while (node != null) {
-        this.put(node, newBuckets);
-        node = node.next;
+  /**
+   * Puts every key with the value at the same index into this hash table.
+   *
+   * <p>The table is resized at most once, up front, for the case where every key is new. Keys are
+   * then processed in batches sorted by bucket index, so the buckets are visited in ascending
+   * memory order instead of at random. Keys that appear more than once keep the last value.
+   *
+   * @param keys
+   * @param values
+   * @throws IllegalArgumentException if the arrays have different lengths.
+   */
+  public void putAll(K[] keys, V[] values) {
+    if (keys.length != values.length)
+      throw new IllegalArgumentException(keys.length + " keys but " + values.length + " values");
+
+    this.ensureCapacity(this.length + keys.length);
+
+    long[] batch = new long[Math.min(keys.length, BATCH_SIZE)];
+
+    for (int start = 0; start < keys.length; start += BATCH_SIZE) {
+      int batchLength = this.sortByBucket(keys, start, batch);
+
+      for (int i = 0; i < batchLength; i++) {
+        int j = (int) batch[i];
+
+        if (this.put(new HashTableNode<K, V>(keys[j], values[j], null), this.buckets))
+          this.length++;
+      }
+    }
+  }
+
+  /**
+   * Retrieves the values that correspond to the specified keys.
+   *
+   * @param keys
+   * @param values the array to store the value of each key at the same index, or {@code null} for
+   *     keys that are not in the table
+   * @return {@code values}
+   * @throws IllegalArgumentException if the arrays have different lengths.
+   * @see #putAll(Object[], Object[])
+   */
+  public V[] getAll(K[] keys, V[] values) {
+    if (keys.length != values.length)
+      throw new IllegalArgumentException(keys.length + " keys but " + values.length + " values");
+
+    this.finishRehash();
+
+    long[] batch = new long[Math.min(keys.length, BATCH_SIZE)];
+
+    for (int start = 0; start < keys.length; start += BATCH_SIZE) {
+      int batchLength = this.sortByBucket(keys, start, batch);
+
+      for (int i = 0; i < batchLength; i++) {
+        int j = (int) batch[i];
+        HashTableNode<K, V> node = this.find(keys[j], this.buckets[(int) (batch[i] >>> 32)]);
+
+        values[j] = node == null ? null : node.value;
+      }
+    }
+
+    return values;
+  }
+
+  /**
+   * Removes the key-value pairs of the specified keys from this hash table, if they exist.
+   *
+   * @param keys
+   * @return the number of key-value pairs that were removed
+   * @see #putAll(Object[], Object[])
+   */
+  public int removeAll(K[] keys) {
+    this.finishRehash();
+
+    int originalLength = this.length;
+    long[] batch = new long[Math.min(keys.length, BATCH_SIZE)];
+
+    for (int start = 0; start < keys.length; start += BATCH_SIZE) {
+      int batchLength = this.sortByBucket(keys, start, batch);
+
+      for (int i = 0; i < batchLength; i++)
+        this.remove(keys[(int) batch[i]], this.buckets, (int) (batch[i] >>> 32));
+    }
+
+    return originalLength - this.length;
+  }
+
+  /**
+   * A reusable cursor over the key-value pairs of a hash table, which walks the buckets without
+   * allocating.
+   *
+   * <p>Call {@link #advance()} to move to the next pair, then read or change it with {@link
+   * #key()}, {@link #value()}, {@link #setValue(Object)}, and {@link #remove()}. Call {@link
+   * #reset()} to walk the table again with the same cursor.
+   *
+   * <p>The table must not be modified during a walk other than through the cursor itself.
+   *
+   * @see HashTable#cursor()
+   */
+  public final class Cursor {
+    /** The index of the bucket being walked, or -1 before the first call to {@code advance}. */
+    int index;
+    /** The number of pairs of the current bucket that were visited, including the current one. */
+    int ordinal;
+    /** The current node, or {@code null} if there is none. */
+    HashTableNode<K, V> node;
+    /** The next node of a linked list bucket. */
+    HashTableNode<K, V> next;
+    /** Whether the current bucket is a tree. */
+    boolean inTree;
+    /** The tree nodes whose left subtrees were visited but which themselves were not. */
+    HashTableTree.Node<K, V>[] stack;
+    int depth;
+
+    @SuppressWarnings("rawtypes")
+    Cursor() {
+      // An AVL tree of up to 2^31 nodes is at most 45 levels high.
+      this.stack = new HashTableTree.Node[64];
+      this.reset();
+    }
+
+    /** Moves this cursor back to before the first key-value pair. */
+    public void reset() {
+      HashTable.this.finishRehash();
+
+      this.index = -1;
+      this.node = this.next = null;
+      this.inTree = false;
+      this.depth = 0;
+    }
+
+    /**
+     * Moves to the next key-value pair.
+     *
+     * @return {@code true} if there is a next pair, {@code false} if the walk is over
+     */
+    public boolean advance() {
+      while (!this.step()) {
+        if (this.index + 1 >= HashTable.this.buckets.length) {
+          this.node = null;
+          return false;
+        }
+
+        this.index++;
+        this.load(0);
+      }
+
+      return true;
+    }
+
+    /** Moves to the next node of the current bucket, if there is one. */
+    private boolean step() {
+      if (this.inTree) {
+        if (this.depth == 0) return false;
+
+        HashTableTree.Node<K, V> treeNode = this.stack[--this.depth];
+        this.pushLeft(treeNode.right);
+        this.node = treeNode;
+      } else {
+        if (this.next == null) return false;
+
+        this.node = this.next;
+        this.next = this.node.next;
+      }
+
+      this.ordinal++;
+      return true;
+    }
+
+    private void pushLeft(HashTableTree.Node<K, V> treeNode) {
+      for (; treeNode != null; treeNode = treeNode.left) this.stack[this.depth++] = treeNode;
+    }
+
+    /** Starts walking the current bucket, skipping the specified number of pairs. */
+    private void load(int skip) {
+      Object bucket = HashTable.this.buckets[this.index];
+
+      this.ordinal = 0;
+      this.node = null;
+      this.inTree = bucket instanceof HashTableTree;
+      this.depth = 0;
+      this.next = null;
+
+      if (this.inTree) this.pushLeft(((HashTableTree<K, V>) bucket).root);
+      else this.next = (HashTableNode<K, V>) bucket;
+
+      for (int i = 0; i < skip; i++) this.step();
+
+      this.node = null;
+    }
+
+    private HashTableNode<K, V> current() {
+      if (this.node == null) throw new IllegalStateException("No current key-value pair");
+
+      return this.node;
+    }
+
+    public K key() {
+      return this.current().key;
+    }
+
+    public V value() {
+      return this.current().value;
+    }
+
+    /**
+     * Replaces the value of the current key-value pair.
+     *
+     * @param value
+     * @return the previous value
+     */
+    public V setValue(V value) {
+      HashTableNode<K, V> node = this.current();
+      V previousValue = node.value;
+
+      node.value = value;
+      return previousValue;
+    }
+
+    /**
+     * Removes the current key-value pair from the table. The cursor has no current pair until the
+     * next call to {@link #advance()}.
+     *
+     * @return the removed value
+     */
+    public V remove() {
+      HashTableNode<K, V> node = this.current();
+      boolean wasTree = this.inTree;
+
+      HashTable.this.remove(node.key, HashTable.this.buckets, this.index);
+
+      // A linked list keeps its order, and this.next is still the next node. A tree may have been
+      // rebalanced or turned back into a list, so walk it again up to where the cursor was.
+      if (wasTree) this.load(this.ordinal - 1);
+      else this.ordinal--;
+
+      this.node = null;
+      return node.value;
+    }
+  }
+
+  /**
+   * Returns a new cursor over the key-value pairs of this hash table. Finishes any incremental
+   * resize first.
+   *
+   * @return a cursor positioned before the first pair
+   * @see Cursor
+   */
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * Calls an action on every key-value pair of this hash table, bucket by bucket, without
+   * allocating per pair. The action must not modify the table.
+   *
+   * @param action
+   */
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    this.visit(action::accept);
+  }
+
+  /**
+   * A spliterator over a range of buckets, which splits by halving the range.
+   *
+   * <p>Tree buckets are copied into a chain when they are reached, so the spliterator never holds
+   * more than one bucket's worth of extra nodes.
+   */
+  static final class BucketSpliterator<K, V> implements Spliterator<Map.Entry<K, V>> {
+    final Object[] buckets;
+    /** The index of the next bucket to be traversed. */
+    int index;
+    /** The index after the last bucket to be traversed. */
+    final int end;
+    /** The remaining nodes of the bucket being traversed. */
+    HashTableNode<K, V> chain;
+    /** The estimated number of key-value pairs left. */
+    long estimate;
+
+    BucketSpliterator(Object[] buckets, int index, int end, long estimate) {
+      this.buckets = buckets;
+      this.index = index;
+      this.end = end;
+      this.estimate = estimate;
+    }
+
+    private HashTableNode<K, V> chain(Object bucket) {
+      if (bucket instanceof HashTableTree) return ((HashTableTree<K, V>) bucket).toChain();
+
+      return (HashTableNode<K, V>) bucket;
+    }
+
+    public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+      while (this.chain == null) {
+        if (this.index >= this.end) return false;
+
+        this.chain = this.chain(this.buckets[this.index++]);
       }
+
+      HashTableNode<K, V> node = this.chain;
+      this.chain = node.next;
+
+      action.accept(new AbstractMap.SimpleImmutableEntry<K, V>(node.key, node.value));
+      return true;
+    }
+
+    public void forEachRemaining(Consumer<? super Map.Entry<K, V>> action) {
+      for (; this.chain != null; this.chain = this.chain.next)
+        action.accept(new AbstractMap.SimpleImmutableEntry<K, V>(this.chain.key, this.chain.value));
+
+      for (; this.index < this.end; this.index++) {
+        for (HashTableNode<K, V> node = this.chain(this.buckets[this.index]);
+            node != null;
+            node = node.next)
+          action.accept(new AbstractMap.SimpleImmutableEntry<K, V>(node.key, node.value));
+      }
+    }
+
+    public Spliterator<Map.Entry<K, V>> trySplit() {
+      int middle = (this.index + this.end) >>> 1;
+
+      if (middle <= this.index) return null;
+
+      // The lower half of the remaining buckets goes to the new spliterator.
+      BucketSpliterator<K, V> prefix =
+          new BucketSpliterator<K, V>(this.buckets, this.index, middle, this.estimate >>>= 1);
+      this.index = middle;
+      return prefix;
     }
 
+    public long estimateSize() {
+      return this.estimate;
+    }
+
+    public int characteristics() {
+      return Spliterator.DISTINCT | Spliterator.NONNULL;
+    }
+  }
+
+  /**
+   * Returns a spliterator over the key-value pairs of this hash table, which splits by bucket
+   * range.
+   *
+   * <p>Finishes any incremental resize first. The table must not be modified during the traversal.
+   *
+   * @return a spliterator over the key-value pairs
+   */
+  public Spliterator<Map.Entry<K, V>> spliterator() {
+    this.finishRehash();
+
+    return new BucketSpliterator<K, V>(this.buckets, 0, this.buckets.length, this.length);
+  }
+
+  public Iterator<Map.Entry<K, V>> iterator() {
+    return Spliterators.iterator(this.spliterator());
+  }
+
+  /**
+   * Returns a sequential stream over the key-value pairs of this hash table.
+   *
+   * @return a stream of the key-value pairs
+   * @see #spliterator()
+   */
+  public Stream<Map.Entry<K, V>> stream() {
+    return StreamSupport.stream(this.spliterator(), false);
+  }
+
+  /**
+   * Returns a parallel stream over the key-value pairs of this hash table, split by bucket range.
+   *
+   * @return a parallel stream of the key-value pairs
+   * @see #spliterator()
+   */
+  public Stream<Map.Entry<K, V>> parallelStream() {
+    return StreamSupport.stream(this.spliterator(), true);
+  }
+
+  /**
+   * A fork/join task that scans a range of buckets, calling an action on every key-value pair (if
+   * any), and returns the sum of the squares of the bucket sizes.
+   */
+  @SuppressWarnings("serial")
+  final class BucketScan extends RecursiveTask<Long> {
+    final BiConsumer<? super K, ? super V> action;
+    final int from;
+    final int to;
+
+    BucketScan(BiConsumer<? super K, ? super V> action, int from, int to) {
+      this.action = action;
+      this.from = from;
+      this.to = to;
+    }
+
+    protected Long compute() {
+      if (this.to - this.from <= PARALLEL_BUCKETS) return scan(this.action, this.from, this.to);
+
+      int middle = (this.from + this.to) >>> 1;
+      BucketScan left = new BucketScan(this.action, this.from, middle);
+
+      left.fork();
+      return new BucketScan(this.action, middle, this.to).compute() + left.join();
+    }
+  }
+
+  /**
+   * Calls an action on every key-value pair in a range of buckets, without allocating.
+   *
+   * @param action the action, or {@code null} to only measure the buckets
+   * @param from
+   * @param to
+   * @return the sum of the squares of the bucket sizes
+   */
+  private long scan(BiConsumer<? super K, ? super V> action, int from, int to) {
+    long squaresSum = 0;
+
+    for (int i = from; i < to; i++) {
+      Object bucket = this.buckets[i];
+      long size = 0;
+
+      if (bucket instanceof HashTableTree) {
+        size = ((HashTableTree<K, V>) bucket).size;
+
+        if (action != null) ((HashTableTree<K, V>) bucket).visit(action::accept);
+      } else {
+        for (HashTableNode<K, V> node = (HashTableNode<K, V>) bucket;
+            node != null;
+            node = node.next) {
+          if (action != null) action.accept(node.key, node.value);
+          size++;
+        }
+      }
+
+      squaresSum += size * size;
+    }
+
+    return squaresSum;
+  }
+
+  /** Returns the sum of the squares of the bucket lengths, in parallel for large tables. */
+  private long sumOfSquares() {
+    if (this.buckets.length > PARALLEL_BUCKETS)
+      return ForkJoinPool.commonPool().invoke(new BucketScan(null, 0, this.buckets.length));
+
+    return this.scan(null, 0, this.buckets.length);
+  }
+
+  /**
+   * Calls an action on every key-value pair of this hash table, in parallel on the common {@code
+   * ForkJoinPool}, splitting the buckets into ranges of {@link #PARALLEL_BUCKETS}.
+   *
+   * <p>The action must be safe to call from several threads at once. Finishes any incremental
+   * resize first. The table must not be modified until this returns.
+   *
+   * @param action
+   */
+  public void forEachParallel(BiConsumer<? super K, ? super V> action) {
+    this.finishRehash();
+
+    ForkJoinPool.commonPool().invoke(new BucketScan(action, 0, this.buckets.length));
+  }
+
+  /**
+   * Sorts the next batch of keys by the index of their bucket.
+   *
+   * <p>Each entry of the batch packs the bucket index in its high 32 bits and the position of the
+   * key in its low 32 bits, so a primitive sort orders the keys by bucket and keeps keys of the
+   * same bucket in their original order.
+   *
+   * @param keys
+   * @param start the position of the first key of the batch
+   * @param batch the array to store the sorted entries in
+   * @return the number of keys in the batch
+   */
+  private int sortByBucket(K[] keys, int start, long[] batch) {
+    int batchLength = Math.min(keys.length - start, batch.length);
+
+    for (int i = 0; i < batchLength; i++) {
+      int index = this.hashFunction.applyAsInt(keys[start + i].hashCode());
+      batch[i] = (long) index << 32 | (start + i);
+    }
+
+    Arrays.sort(batch, 0, batchLength);
+    return batchLength;
+  }
+
+  /**
+   * Returns the node with the specified key in a bucket.
+   *
+   * <p>With metrics, adds the number of keys compared to {@code walkLength}, or the size of a tree
+   * bucket.
+   *
+   * @param key
+   * @param bucket
+   * @return the node with the key, or {@code null} if the key was not found in the bucket.
+   */
+  private HashTableNode<K, V> find(K key, Object bucket) {
+    if (bucket instanceof HashTableTree) {
+      HashTableTree<K, V> tree = (HashTableTree<K, V>) bucket;
+
+      if (this.metrics != null) this.walkLength += tree.size;
+      return tree.find(key);
+    }
+
+    HashTableNode<K, V> node = (HashTableNode<K, V>) bucket;
+    int walked = 0;
+
+    while (node != null) {
+      walked++;
+      if (node.key.equals(key)) break;
+
+      node = node.next;
+    }
+
+    if (this.metrics != null) this.walkLength += walked;
+    return node;
+  }
+
+  /**
+   * Resizes this hash table to a new capacity, rehashing and copying all existing key-value pairs
+   * to a new array.
+   *
+   * <p>Copying is done by creating new references to the existing nodes instead of creating new
+   * nodes to maintain a O(1) space usage.
+   *
+   * @param newCapacity
+   */
+  private void resize(int newCapacity) {
+    this.finishRehash();
+
+    if (this.powerOfTwoCapacity && newCapacity > 1)
+      newCapacity = Integer.highestOneBit(newCapacity - 1) << 1;
+
+    HashTableMetrics.ResizeEvent event = this.beginResize();
+    long start = System.nanoTime();
+    Object[] newBuckets = new Object[this.capacity = newCapacity];
+
+    // Every node is put into the new buckets, which adds up the new sum of squares from 0.
+    if (this.metrics != null) this.metrics.squaresSum.lazySet(0);
+
+    for (Object bucket : this.buckets) this.move(bucket, newBuckets);
+
     this.buckets = newBuckets;
+    this.endResize(event, start);
+  }
+
+  /**
+   * Starts timing a resize if metrics are recorded.
+   *
+   * @return the Flight Recorder event of the resize, or {@code null} if metrics are not recorded
+   */
+  private HashTableMetrics.ResizeEvent beginResize() {
+    if (this.metrics == null) return null;
+
+    HashTableMetrics.ResizeEvent event = new HashTableMetrics.ResizeEvent();
+    event.oldCapacity = this.buckets.length;
+    event.begin();
+    return event;
+  }
+
+  private void endResize(HashTableMetrics.ResizeEvent event, long start) {
+    if (event == null) return;
+
+    this.metrics.recordResize(System.nanoTime() - start);
+
+    event.newCapacity = this.capacity;
+    event.length = this.length;
+    event.commit();
+  }
+
+  /**
+   * Puts every node of a bucket into the specified array of buckets.
+   *
+   * <p>The nodes of a linked list are reused. A tree is first converted back into a list of new
+   * nodes, which may then form trees again in the new buckets.
+   *
+   * @param bucket
+   * @param buckets
+   */
+  private void move(Object bucket, Object[] buckets) {
+    HashTableNode<K, V> node =
+        bucket instanceof HashTableTree
+            ? ((HashTableTree<K, V>) bucket).toChain()
+            : (HashTableNode<K, V>) bucket;
+
+    while (node != null) {
+      // put() clears .next, so remember the rest of the chain first.
+      HashTableNode<K, V> next = node.next;
+      this.put(node, buckets);
+      node = next;
+    }
+  }
+
+  /**
+   * Starts an incremental resize to a new capacity.
+   *
+   * <p>Only the new array of buckets is allocated here. The current buckets become the old buckets
+   * and are migrated a few at a time by subsequent operations.
+   *
+   * @param newCapacity
+   * @see #setRehashStep(int)
+   */
+  private void startRehash(int newCapacity) {
+    this.finishRehash();
+
+    HashTableMetrics.ResizeEvent event = this.beginResize();
+    long start = System.nanoTime();
+
+    this.oldBuckets = this.buckets;
+    this.migrationIndex = 0;
+    this.buckets = new Object[this.capacity = newCapacity];
+
+    this.endResize(event, start);
+  }
+
+  /**
+   * Migrates the next {@code rehashStep} old buckets, if an incremental resize is in progress.
+   *
+   * <p>Used internally by {@code put}, {@code get}, and {@code remove}.
+   */
+  private void rehash() {
+    for (int i = 0; i < this.rehashStep && this.oldBuckets != null; i++) {
+      this.migrate(this.migrationIndex++);
+
+      if (this.migrationIndex == this.oldBuckets.length) this.oldBuckets = null;
+    }
+  }
+
+  /** Migrates all remaining old buckets, if an incremental resize is in progress. */
+  private void finishRehash() {
+    while (this.oldBuckets != null) {
+      this.migrate(this.migrationIndex++);
+
+      if (this.migrationIndex == this.oldBuckets.length) this.oldBuckets = null;
+    }
+  }
+
+  /**
+   * Moves every node of an old bucket into the current buckets, leaving the old bucket empty.
+   *
+   * @param index the index of the old bucket
+   */
+  private void migrate(int index) {
+    Object bucket = this.oldBuckets[index];
+    this.oldBuckets[index] = null;
+
+    if (this.metrics != null) {
+      long length = bucketLength(bucket);
+      this.metrics.addSquares(-length * length);
+    }
+
+    this.move(bucket, this.buckets);
+  }
+
+  /**
+   * Returns the index of the old bucket the specified key hashes to.
+   *
+   * <p>The hash function refers to {@code this.capacity}, so the capacity is set back to that of
+   * the old buckets while hashing.
+   *
+   * @param key
+   * @return the index of the key in {@code oldBuckets}
+   */
+  private int oldIndexOf(K key) {
+    int newCapacity = this.capacity;
+    this.capacity = this.oldBuckets.length;
+
+    int index = this.hashFunction.applyAsInt(key.hashCode());
+
+    this.capacity = newCapacity;
+    return index;
   }
 
   /**
    * Resizes this hash table such that the new load factor is equal to or higher than (but remains
    * closest to) the specified load factor.
    *
+   * <p>If the capacity is kept at a power of two, it is rounded up, so the new load factor may be
+   * lower.
+   *
    * @param minimumLoadFactor
    */
   public void resize(float minimumLoadFactor) {
@@ -287,18 +1519,23 @@ public class HashTable<K, V> {
   /**
    * Doubles the capacity, or number of buckets.
    *
-   * <p>Used internally only for the {@code put} method.
+   * <p>Rehashes every node at once, or starts an incremental resize if the rehash step is
+   * positive. Used internally only for the {@code put} method.
    *
    * @see #put(Object, Object)
    */
   private void expand() {
-    this.resize(this.capacity * 2);
+    if (this.rehashStep > 0) this.startRehash(this.capacity * 2);
+    else this.resize(this.capacity * 2);
   }
 
   /**
    * Returns the clustering measure of this hash table, which tells us how (not) random the key
    * distribution is.
    *
+   * <p>Tables with more than {@link #PARALLEL_BUCKETS} buckets are measured in parallel. If metrics
+   * are recorded, use {@link HashTableMetrics#getClustering()} instead, which is O(1).
+   *
    * <p>The meanings of the clustering is as follows:
    *
    * <ul>
@@ -313,22 +1550,12 @@ public class HashTable<K, V> {
    * @return the clustering of this hash table
    */
   public float measureClustering() {
-    // First, calculate the sum of the squares of the number of elements in each
-    // bucket.
-
-    float squaresSum = 0;
+    this.finishRehash();
 
-    for (Object bucket : this.buckets) {
-      int numElements = 0; // Number of elements in this bucket
-      HashTableNode<K, V> node = (HashTableNode<K, V>) bucket;
-
-      while (node != null) {
-        numElements++;
-        node = node.next;
-      }
+    // First, calculate the sum of the squares of the number of elements in each
+    // bucket, in parallel for large tables.
 
-      squaresSum += Math.pow(numElements, 2);
-    }
+    float squaresSum = this.sumOfSquares();
 
     int m = this.capacity;
     int n = this.length;
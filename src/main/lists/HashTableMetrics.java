@@ -0,0 +1,196 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Metrics collected by a {@link HashTable} as it is used, enabled with {@link
+ * HashTable#setMetrics(HashTableMetrics)}.
+ *
+ * <p>The table records:
+ *
+ * <ul>
+ *   <li>a histogram of the number of keys compared by each {@code get} and {@code put}, counted
+ *       as they walk their bucket, with a tree bucket counting as its size (counts of {@link
+ *       #MAX_CHAIN_LENGTH} or more share the last entry);
+ *   <li>the number of {@code get} calls that found or did not find their key;
+ *   <li>the number of resizes and the time they took;
+ *   <li>the sum of the squares of the bucket lengths, updated on every insertion and removal, so
+ *       that {@link #getClustering()} is O(1) instead of a scan of every bucket.
+ * </ul>
+ *
+ * <p>Every resize also emits a {@link ResizeEvent} to Java Flight Recorder when it is recording,
+ * and the metrics can be read through JMX once {@link #register(String)} is called.
+ *
+ * <p>A table without metrics only pays a {@code null} check per operation.
+ *
+ * <p>Only the thread using the table updates the metrics, so every count is published with a
+ * release store ({@code lazySet}) instead of an atomic increment: other threads, such as those
+ * reading through JMX, see every update in order and never a torn {@code long}, and the writer pays
+ * no more than a plain store. The length and capacity are read from the table itself and may lag
+ * behind on other threads.
+ */
+public class HashTableMetrics implements HashTableMetricsMXBean {
+  /** The number of keys compared from which accesses share the last entry of the histogram. */
+  public static final int MAX_CHAIN_LENGTH = 16;
+
+  /** A Java Flight Recorder event for a hash table resize. */
+  @Name("HashTable.Resize")
+  @Label("Hash Table Resize")
+  @Category("Data Structures")
+  public static final class ResizeEvent extends Event {
+    @Label("Old Capacity")
+    int oldCapacity;
+
+    @Label("New Capacity")
+    int newCapacity;
+
+    @Label("Length")
+    int length;
+  }
+
+  /** The table these metrics belong to, or {@code null} if they were not attached yet. */
+  HashTable<?, ?> table;
+  final AtomicLongArray chainLengths = new AtomicLongArray(MAX_CHAIN_LENGTH + 1);
+  final AtomicLong hits = new AtomicLong();
+  final AtomicLong misses = new AtomicLong();
+  final AtomicLong resizes = new AtomicLong();
+  final AtomicLong totalResizeNanos = new AtomicLong();
+  final AtomicLong lastResizeNanos = new AtomicLong();
+  /** The sum of the squares of the lengths of every bucket, old buckets included. */
+  final AtomicLong squaresSum = new AtomicLong();
+
+  /** Adds 1 to a count that only the thread using the table writes. */
+  private static void increment(AtomicLong count) {
+    count.lazySet(count.get() + 1);
+  }
+
+  void recordAccess(int chainLength) {
+    int index = Math.min(chainLength, MAX_CHAIN_LENGTH);
+
+    this.chainLengths.lazySet(index, this.chainLengths.get(index) + 1);
+  }
+
+  void recordGet(boolean hit) {
+    increment(hit ? this.hits : this.misses);
+  }
+
+  void recordResize(long nanos) {
+    increment(this.resizes);
+    this.totalResizeNanos.lazySet(this.totalResizeNanos.get() + nanos);
+    this.lastResizeNanos.lazySet(nanos);
+  }
+
+  /**
+   * Adds to the sum of the squares of the bucket lengths.
+   *
+   * @param delta the change of the sum, negative if it shrinks
+   */
+  void addSquares(long delta) {
+    this.squaresSum.lazySet(this.squaresSum.get() + delta);
+  }
+
+  public int getLength() {
+    return this.table.getLength();
+  }
+
+  public int getCapacity() {
+    return this.table.getCapacity();
+  }
+
+  public long getHitCount() {
+    return this.hits.get();
+  }
+
+  public long getMissCount() {
+    return this.misses.get();
+  }
+
+  /**
+   * Returns the fraction of {@code get} calls that found their key.
+   *
+   * @return the hit rate, or 0 if {@code get} was never called
+   */
+  public double getHitRate() {
+    long hits = this.hits.get();
+    long requests = hits + this.misses.get();
+
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  public long getResizeCount() {
+    return this.resizes.get();
+  }
+
+  public long getTotalResizeNanos() {
+    return this.totalResizeNanos.get();
+  }
+
+  public long getLastResizeNanos() {
+    return this.lastResizeNanos.get();
+  }
+
+  /**
+   * Returns the number of accesses that compared each number of keys.
+   *
+   * @return a copy of the histogram, indexed by the number of keys compared
+   */
+  public long[] getChainLengthHistogram() {
+    long[] histogram = new long[MAX_CHAIN_LENGTH + 1];
+
+    for (int i = 0; i <= MAX_CHAIN_LENGTH; i++) histogram[i] = this.chainLengths.get(i);
+
+    return histogram;
+  }
+
+  /**
+   * Returns the clustering measure of the table in O(1), from the maintained sum of squares.
+   *
+   * <p>While an incremental resize is in progress, the old buckets count as well, so the measure is
+   * only approximate.
+   *
+   * @return the clustering of the table
+   * @see HashTable#measureClustering()
+   */
+  public float getClustering() {
+    int m = this.table.getCapacity();
+    int n = this.table.getLength();
+
+    return ((float) m / (n - 1)) * ((float) this.squaresSum.get() / n - 1);
+  }
+
+  /**
+   * Resets the histogram and the counts of hits, misses, and resizes. Like the updates, this must
+   * be called by the thread using the table.
+   */
+  public void reset() {
+    for (int i = 0; i <= MAX_CHAIN_LENGTH; i++) this.chainLengths.lazySet(i, 0);
+
+    this.hits.lazySet(0);
+    this.misses.lazySet(0);
+    this.resizes.lazySet(0);
+    this.totalResizeNanos.lazySet(0);
+    this.lastResizeNanos.lazySet(0);
+  }
+
+  /**
+   * Registers these metrics with the platform MBean server.
+   *
+   * @param name the name of the table, used in the object name {@code
+   *     HashTable:type=HashTableMetrics,name=<name>}
+   * @return the object name the metrics were registered under
+   * @throws JMException if the metrics cannot be registered.
+   */
+  public ObjectName register(String name) throws JMException {
+    ObjectName objectName =
+        new ObjectName("HashTable:type=HashTableMetrics,name=" + ObjectName.quote(name));
+
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    return objectName;
+  }
+}
@@ -0,0 +1,25 @@
+/**
+ * The management interface of {@link HashTableMetrics}, for reading the metrics of a hash table
+ * through JMX.
+ */
+public interface HashTableMetricsMXBean {
+  public int getLength();
+
+  public int getCapacity();
+
+  public long getHitCount();
+
+  public long getMissCount();
+
+  public double getHitRate();
+
+  public long getResizeCount();
+
+  public long getTotalResizeNanos();
+
+  public long getLastResizeNanos();
+
+  public long[] getChainLengthHistogram();
+
+  public float getClustering();
+}
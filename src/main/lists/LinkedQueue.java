@@ -15,9 +15,9 @@
  * </ul>
  */
 public class LinkedQueue<T> implements Queue<T> {
-  private LinkedNode<T> front; // head of linked list
-  private LinkedNode<T> rear; // tail of linked list
-  private int length;
+  LinkedNode<T> front; // head of linked list
+  LinkedNode<T> rear; // tail of linked list
+  int length;
 
   public LinkedQueue() {
     this.front = new LinkedNode<T>(null, null);
@@ -13,8 +13,8 @@
  * </ul>
  */
 public class LinkedStack<T> implements Stack<T> {
-  private LinkedNode<T> top;
-  private int length;
+  LinkedNode<T> top;
+  int length;
 
   public LinkedStack() {
     this.top = new LinkedNode<T>(null, new LinkedNode<T>(null, null));
@@ -0,0 +1,127 @@
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * A dynamic array of primitive {@code long}s, based on a fixed-size {@code long[]}.
+ *
+ * <p>The same as {@link DynamicArray}, without boxing or a pointer per element.
+ *
+ * <p>Operations with their time complexities are:
+ *
+ * <ul>
+ *   <li><code>shrinkCapacity()</code>: O(n)
+ *   <li><code>growCapacity()</code>: O(n)
+ *   <li><code>append(long)</code>: O(1)
+ *   <li><code>appendAll(long[], int, int)</code>: O(k)
+ *   <li><code>insert(long, int)</code>: O(n)
+ *   <li><code>remove()</code>: O(1)
+ *   <li><code>remove(int)</code>: O(n)
+ *   <li><code>get</code>: O(1)
+ * </ul>
+ */
+public class LongDynamicArray {
+  long[] array; // The underlying fixed-size array
+  int length; // The number of elements in this array
+
+  public LongDynamicArray() {
+    this.array = new long[10];
+    this.length = 0;
+  }
+
+  public LongDynamicArray(int initialCapacity) {
+    this.array = new long[initialCapacity];
+    this.length = 0;
+  }
+
+  public int getLength() {
+    return this.length;
+  }
+
+  public int getCapacity() {
+    return this.array.length;
+  }
+
+  public boolean isEmpty() {
+    return this.length == 0;
+  }
+
+  public LongDynamicArray shrinkCapacity() {
+    this.array = Arrays.copyOf(this.array, this.length);
+    return this;
+  }
+
+  public LongDynamicArray growCapacity() {
+    this.array = Arrays.copyOf(this.array, Math.max(this.array.length * 2, 1));
+    return this;
+  }
+
+  public LongDynamicArray append(long data) {
+    if (this.length + 1 > this.array.length) this.growCapacity();
+
+    this.array[this.length++] = data;
+    return this;
+  }
+
+  /**
+   * Appends a run of elements with a single array copy, growing at most once.
+   *
+   * @param source
+   * @param offset the index of the first element to append
+   * @param length the number of elements to append
+   * @return this array
+   */
+  public LongDynamicArray appendAll(long[] source, int offset, int length) {
+    if (this.length + length > this.array.length)
+      this.array = Arrays.copyOf(this.array, Math.max(this.array.length * 2, this.length + length));
+
+    System.arraycopy(source, offset, this.array, this.length, length);
+    this.length += length;
+    return this;
+  }
+
+  public LongDynamicArray insert(long data, int index) {
+    if (this.length + 1 > this.array.length) this.growCapacity();
+
+    System.arraycopy(this.array, index, this.array, index + 1, this.length++ - index);
+
+    this.array[index] = data;
+    return this;
+  }
+
+  public LongDynamicArray remove() {
+    this.length--;
+    return this;
+  }
+
+  public LongDynamicArray remove(int index) {
+    System.arraycopy(this.array, index + 1, this.array, index, this.length - index - 1);
+
+    return this.remove();
+  }
+
+  public long get(int index) {
+    return this.array[index];
+  }
+
+  /**
+   * Returns the elements of this array.
+   *
+   * <p>If the array is full, the backing array itself is returned without copying, so changes to
+   * either are visible in the other until this array next grows or shrinks. Call {@link
+   * #shrinkCapacity()} first to guarantee that.
+   *
+   * @return an array of exactly {@code getLength()} elements
+   */
+  public long[] toArray() {
+    return this.length == this.array.length ? this.array : Arrays.copyOf(this.array, this.length);
+  }
+
+  /**
+   * Returns a sequential stream over the elements of this array, without copying or boxing.
+   *
+   * @return a stream of the elements
+   */
+  public LongStream stream() {
+    return Arrays.stream(this.array, 0, this.length);
+  }
+}
@@ -0,0 +1,301 @@
+import java.util.function.LongToIntFunction;
+
+/**
+ * A hash table from primitive {@code long} keys to primitive {@code long} values.
+ *
+ * <p>Keys and values are kept in {@code long[]} arrays and keys are hashed with a {@link
+ * LongToIntFunction}, so nothing is ever boxed. Collisions are resolved with Robin Hood linear
+ * probing and backward-shift deletion, as in {@link OpenAddressingHashTable}; {@code get} never
+ * allocates.
+ *
+ * <p>All operations ({@code put}, {@code remove}, and {@code get}) are O(1) at best (when the load
+ * factor is good and the hash function is random) and O(n) at worst (when a hash function produces
+ * highest clustering).
+ */
+public class LongLongHashTable {
+  /** The keys of this hash table. Only slots with a non-zero probe length hold a key. */
+  long[] keys;
+  /** The values of this hash table, at the same indices as their keys. */
+  long[] values;
+  /** The probe distance plus one of the key in each slot, or 0 if the slot is empty. */
+  int[] probes;
+  /**
+   * The maximum load factor allowed for this hash table, which must be below 1.0. Defaults to 0.75.
+   *
+   * @see OpenAddressingHashTable#loadFactor
+   */
+  float loadFactor = 0.75f;
+  /**
+   * The hash function used to calculate the home slot for an incoming key, returning an integer
+   * between 0 (inclusive) and the capacity (exclusive).
+   */
+  LongToIntFunction hashFunction = k -> Math.floorMod(k, this.capacity); // h(k)
+  /** The number of key-value pairs that are stored by this hash table. */
+  int length;
+  /** The number of slots in this hash table. */
+  int capacity;
+  /** The value returned by {@code get} and {@code remove} for absent keys. Defaults to 0. */
+  long missingValue = 0;
+
+  /** Initializes a new hash table with 16 slots and a maximum load factor of 0.75. */
+  public LongLongHashTable() {
+    this(16);
+  }
+
+  /**
+   * Initializes a new hash table with the specified initial capacity and a maximum load factor of
+   * 0.75.
+   *
+   * @param initialCapacity
+   */
+  public LongLongHashTable(int initialCapacity) {
+    this.allocate(this.capacity = initialCapacity);
+    this.length = 0;
+  }
+
+  /**
+   * Initializes a new hash table with the specified initial capacity and maximum load factor.
+   *
+   * @param initialCapacity
+   * @param loadFactor
+   * @throws IllegalArgumentException if the load factor is not between 0 and 1 (exclusive).
+   */
+  public LongLongHashTable(int initialCapacity, float loadFactor) {
+    if (loadFactor <= 0 || loadFactor >= 1)
+      throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+
+    this.allocate(this.capacity = initialCapacity);
+    this.loadFactor = loadFactor;
+    this.length = 0;
+  }
+
+  /**
+   * Returns the number of key-value pairs in this hash table.
+   *
+   * @return the number of key-value pairs in this hash table
+   */
+  public int getLength() {
+    return this.length;
+  }
+
+  /**
+   * Returns the number of slots in this hash table.
+   *
+   * @return the number of slots in this hash table
+   */
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Returns the active hash function of this hash table.
+   *
+   * @return the active hash function of this hash table
+   */
+  public LongToIntFunction getHashFunction() {
+    return this.hashFunction;
+  }
+
+  /**
+   * Sets the hash function for this hash table.
+   *
+   * <p>Existing keys are not rehashed, so this should be called while the table is empty.
+   *
+   * @param hashFunction
+   */
+  public void setHashFunction(LongToIntFunction hashFunction) {
+    this.hashFunction = hashFunction;
+  }
+
+  /**
+   * Returns the value returned by {@code get} and {@code remove} for absent keys.
+   *
+   * @return the missing value of this hash table
+   */
+  public long getMissingValue() {
+    return this.missingValue;
+  }
+
+  /**
+   * Sets the value returned by {@code get} and {@code remove} for absent keys.
+   *
+   * <p>Use {@link #containsKey(long)} if every {@code long} is a possible value.
+   *
+   * @param missingValue
+   */
+  public void setMissingValue(long missingValue) {
+    this.missingValue = missingValue;
+  }
+
+  private void allocate(int capacity) {
+    this.keys = new long[capacity];
+    this.values = new long[capacity];
+    this.probes = new int[capacity];
+  }
+
+  /**
+   * Puts a key-value pair into the slot arrays using Robin Hood probing.
+   *
+   * @param key
+   * @param value
+   * @return {@code true} if the key was added, {@code false} if the value of an existing key was
+   *     overridden.
+   */
+  private boolean insert(long key, long value) {
+    int index = this.hashFunction.applyAsInt(key);
+    int probe = 1;
+
+    while (true) {
+      if (this.probes[index] == 0) {
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.probes[index] = probe;
+        return true;
+      }
+
+      if (this.keys[index] == key) {
+        this.values[index] = value;
+        return false;
+      }
+
+      // The resident is closer to its home than we are: take its slot and carry it onwards.
+      if (this.probes[index] < probe) {
+        long displacedKey = this.keys[index];
+        long displacedValue = this.values[index];
+        int displacedProbe = this.probes[index];
+
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.probes[index] = probe;
+
+        key = displacedKey;
+        value = displacedValue;
+        probe = displacedProbe;
+      }
+
+      if (++index == this.capacity) index = 0;
+      probe++;
+    }
+  }
+
+  /**
+   * Returns the slot index of the specified key, or -1 if the key is not in this table.
+   *
+   * @param key
+   * @return the slot index of the key or -1
+   */
+  private int indexOf(long key) {
+    int index = this.hashFunction.applyAsInt(key);
+
+    for (int probe = 1; this.probes[index] >= probe; probe++) {
+      if (this.keys[index] == key) return index;
+      if (++index == this.capacity) index = 0;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Puts a new key-value pair into this hash table, overriding the value if the key already exists.
+   *
+   * <p>If adding would cause the hash table to exceed the maximum load factor, double the capacity
+   * before adding.
+   *
+   * @param key
+   * @param value
+   */
+  public void put(long key, long value) {
+    if ((float) (this.length + 1) / this.capacity > this.loadFactor) this.expand();
+
+    if (this.insert(key, value)) this.length++;
+  }
+
+  /**
+   * Removes a key-value pair from this hash table, if it exists.
+   *
+   * @param key
+   * @return the value that was matched with the specified key in the hash table or
+   *     the missing value if the key was not found in the table.
+   */
+  public long remove(long key) {
+    int index = this.indexOf(key);
+
+    if (index == -1) return this.missingValue;
+
+    long removedValue = this.values[index];
+    int next = index + 1 == this.capacity ? 0 : index + 1;
+
+    // Shift back until an empty slot or a key that already sits in its home slot.
+    while (this.probes[next] > 1) {
+      this.keys[index] = this.keys[next];
+      this.values[index] = this.values[next];
+      this.probes[index] = this.probes[next] - 1;
+
+      index = next;
+      if (++next == this.capacity) next = 0;
+    }
+
+    this.probes[index] = 0;
+
+    this.length--;
+    return removedValue;
+  }
+
+  /**
+   * Retrieves the value in this table that corresponds to the specified key.
+   *
+   * @param key
+   * @return the value in this table that matches with the key, or the missing value if such a value
+   *     does not exist in the table.
+   */
+  public long get(long key) {
+    int index = this.indexOf(key);
+
+    return index == -1 ? this.missingValue : this.values[index];
+  }
+
+  /**
+   * Returns whether this table contains the specified key.
+   *
+   * @param key
+   * @return {@code true} if the key is in this table
+   */
+  public boolean containsKey(long key) {
+    return this.indexOf(key) != -1;
+  }
+
+  private void resize(int newCapacity) {
+    long[] oldKeys = this.keys;
+    long[] oldValues = this.values;
+    int[] oldProbes = this.probes;
+
+    this.allocate(this.capacity = newCapacity);
+
+    for (int i = 0; i < oldKeys.length; i++)
+      if (oldProbes[i] != 0) this.insert(oldKeys[i], oldValues[i]);
+  }
+
+  /**
+   * Resizes this hash table such that the new load factor is equal to or higher than (but remains
+   * closest to) the specified load factor.
+   *
+   * @param minimumLoadFactor
+   */
+  public void resize(float minimumLoadFactor) {
+    this.resize(Math.max((int) Math.ceil(this.length / minimumLoadFactor), this.length + 1));
+  }
+
+  private void expand() {
+    this.resize(Math.max(this.capacity * 2, 1));
+  }
+
+  /**
+   * Returns the clustering measure of this hash table over the home slots of its keys.
+   *
+   * @return the clustering of this hash table
+   * @see HashTable#measureClustering()
+   */
+  public float measureClustering() {
+    return OpenAddressing.measureClustering(this.probes, this.length);
+  }
+}
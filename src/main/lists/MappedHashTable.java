@@ -0,0 +1,283 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An {@link OffHeapHashTable} whose slots live in a memory-mapped file, so that a table survives a
+ * restart without being rebuilt.
+ *
+ * <p>The file starts with a 32-byte header (a magic number, the format version, the value size,
+ * the capacity, and the length) followed by the slots exactly as {@code OffHeapHashTable} lays
+ * them out, in little-endian order. Opening an existing file maps it and serves {@code get} right
+ * away: nothing is deserialized or rehashed. The home slot of a key depends on the hash function
+ * and the capacity, so a file must be reopened with the same hash function it was written with.
+ *
+ * <p>Writes go straight to the mapping, and the operating system flushes them to the file in its
+ * own time. Call {@link #force()} to flush them now. A crash in the middle of a {@code put} or
+ * {@code remove} may leave the file inconsistent; {@link #snapshot(Path)} writes a consistent copy
+ * that is swapped in atomically. Resizes are rehashed into a new file next to the table, which is
+ * then moved over the old one in the same way, so a crash during a resize leaves the old table.
+ *
+ * <p>The clustering measure is not stored. It is computed on the first call to {@link
+ * #measureClustering()} and cached until the table is next modified.
+ */
+public class MappedHashTable extends OffHeapHashTable {
+  static final long MAGIC = 0x4d48617368546231L; // "MHashTb1"
+  static final int VERSION = 1;
+  static final int HEADER = 32;
+
+  static final int MAGIC_OFFSET = 0;
+  static final int VERSION_OFFSET = 8;
+  static final int VALUE_SIZE_OFFSET = 12;
+  static final int CAPACITY_OFFSET = 16;
+  static final int LENGTH_OFFSET = 20;
+
+  /** The file backing this table. */
+  Path path;
+  /** The open channel to the file, or {@code null} once closed. */
+  FileChannel channel;
+  /** The mapping of the whole file, header and slots. */
+  MappedByteBuffer mapping;
+  /** The clustering measure of the table, or NaN if it has to be recomputed. */
+  float clustering = Float.NaN;
+
+  /**
+   * Opens the table stored in the specified file, or creates it with the specified initial
+   * capacity if the file does not exist or is empty.
+   *
+   * @param path
+   * @param valueSize the number of bytes per value record
+   * @param initialCapacity the capacity of a new table; ignored if the file already holds one
+   * @throws IOException if the file cannot be opened or mapped.
+   * @throws IllegalArgumentException if the file does not hold a complete table with this value
+   *     size.
+   */
+  public MappedHashTable(Path path, int valueSize, int initialCapacity) throws IOException {
+    super(valueSize, 0); // The slots are replaced by the mapping below.
+
+    this.path = path;
+    this.channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+    try {
+      if (this.channel.size() == 0) {
+        this.buffer = this.allocate(this.capacity = initialCapacity);
+      } else {
+        if (this.channel.size() < HEADER)
+          throw new IllegalArgumentException("Illegal table file: " + path);
+
+        this.map(this.channel.size());
+
+        if (this.mapping.getLong(MAGIC_OFFSET) != MAGIC
+            || this.mapping.getInt(VERSION_OFFSET) != VERSION)
+          throw new IllegalArgumentException("Illegal table file: " + path);
+        if (this.mapping.getInt(VALUE_SIZE_OFFSET) != valueSize)
+          throw new IllegalArgumentException("Illegal value size: " + valueSize);
+
+        int capacity = this.mapping.getInt(CAPACITY_OFFSET);
+        int length = this.mapping.getInt(LENGTH_OFFSET);
+
+        // A truncated file would otherwise only fail on the first access past its end.
+        if (capacity < 0 || this.channel.size() < HEADER + (capacity + 2L) * this.slotSize)
+          throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        if (length < 0 || length > capacity)
+          throw new IllegalArgumentException("Illegal length: " + length);
+
+        this.capacity = capacity;
+        this.length = length;
+        this.buffer = this.slots();
+      }
+    } catch (IOException | RuntimeException e) {
+      this.channel.close();
+      throw e;
+    }
+  }
+
+  public Path getPath() {
+    return this.path;
+  }
+
+  private void map(long size) throws IOException {
+    this.mapping = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    this.mapping.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private ByteBuffer slots() {
+    ByteBuffer slots = this.mapping.slice(HEADER, this.mapping.capacity() - HEADER);
+    return slots.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Maps the empty file of the current channel with room for the specified number of slots plus
+   * the two carry slots, writes its header, and returns the zeroed slots.
+   */
+  @Override
+  ByteBuffer allocate(int capacity) {
+    long size = HEADER + Math.multiplyExact(capacity + 2, this.slotSize);
+
+    try {
+      this.map(size);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    this.mapping.putLong(MAGIC_OFFSET, MAGIC);
+    this.mapping.putInt(VERSION_OFFSET, VERSION);
+    this.mapping.putInt(VALUE_SIZE_OFFSET, this.valueSize);
+    this.mapping.putInt(CAPACITY_OFFSET, capacity);
+    this.mapping.putInt(LENGTH_OFFSET, this.length);
+    return this.slots();
+  }
+
+  /**
+   * Rehashes into a new file next to this one, flushes it, then moves it over this file
+   * atomically, so the file always holds either the old or the new table. The old slots stay
+   * mapped while they are copied.
+   *
+   * @throws UncheckedIOException if the new file cannot be written; the table is left unchanged.
+   */
+  @Override
+  void resize(int newCapacity) {
+    Path temporary = this.path.resolveSibling(this.path.getFileName() + ".resize");
+    FileChannel oldChannel = this.channel;
+    MappedByteBuffer oldMapping = this.mapping;
+    ByteBuffer oldBuffer = this.buffer;
+    int oldCapacity = this.capacity;
+
+    try {
+      this.channel =
+          FileChannel.open(
+              temporary,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING);
+
+      super.resize(newCapacity);
+      this.mapping.force();
+
+      Files.move(
+          temporary,
+          this.path,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | UncheckedIOException e) {
+      try {
+        if (this.channel != oldChannel) this.channel.close();
+        Files.deleteIfExists(temporary);
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+
+      this.channel = oldChannel;
+      this.mapping = oldMapping;
+      this.buffer = oldBuffer;
+      this.capacity = oldCapacity;
+
+      throw e instanceof IOException
+          ? new UncheckedIOException((IOException) e)
+          : (UncheckedIOException) e;
+    }
+
+    this.clustering = Float.NaN;
+
+    try {
+      oldChannel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void put(long key, ByteBuffer value) {
+    super.put(key, value);
+
+    this.mapping.putInt(LENGTH_OFFSET, this.length);
+    this.clustering = Float.NaN;
+  }
+
+  @Override
+  public boolean remove(long key) {
+    if (!super.remove(key)) return false;
+
+    this.mapping.putInt(LENGTH_OFFSET, this.length);
+    this.clustering = Float.NaN;
+    return true;
+  }
+
+  /**
+   * Returns the clustering measure of this hash table, computing it only if the table changed
+   * since the last call.
+   *
+   * @return the clustering of this hash table
+   */
+  @Override
+  public float measureClustering() {
+    if (Float.isNaN(this.clustering)) this.clustering = super.measureClustering();
+
+    return this.clustering;
+  }
+
+  /** Flushes all changes to the file. */
+  public void force() {
+    this.mapping.force();
+  }
+
+  /**
+   * Writes a consistent copy of this table to the specified file, which can then be opened with
+   * {@link #MappedHashTable(Path, int, int)}.
+   *
+   * <p>The copy is written to a temporary file next to the target, flushed, then moved over the
+   * target atomically, so the target always holds either the old or the new snapshot.
+   *
+   * @param target
+   * @throws IOException if the snapshot cannot be written.
+   */
+  public void snapshot(Path target) throws IOException {
+    Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+    ByteBuffer source = this.mapping.duplicate().clear();
+
+    try (FileChannel out =
+        FileChannel.open(
+            temporary,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (source.hasRemaining()) out.write(source);
+
+      out.force(true);
+    }
+
+    Files.move(
+        temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Flushes all changes to the file and closes it. Any later use of the table fails.
+   *
+   * @throws UncheckedIOException if the file cannot be written or closed.
+   */
+  @Override
+  public void close() {
+    if (this.channel == null) return;
+
+    try {
+      this.mapping.force();
+      this.channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    this.channel = null;
+    this.mapping = null;
+    this.buffer = null;
+  }
+}
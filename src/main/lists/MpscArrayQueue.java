@@ -0,0 +1,144 @@
+/**
+ * A lock-free queue for any number of producer threads and one consumer thread.
+ *
+ * <p>Producers claim a slot by advancing the rear sequence with a compare-and-set, then store the
+ * element into it. Only the consumer calls {@code dequeue}, {@code peek}, and {@code drainTo}. A
+ * slot that has been claimed but not yet filled is seen as empty by {@code drainTo}, and waited on
+ * by {@code dequeue}.
+ *
+ * <p>To avoid reading the consumer's sequence on every enqueue, producers share a limit, the rear
+ * sequence up to which slots are known to be free, and only read the front sequence once the limit
+ * is reached. The limit is allocated after the buffer, away from the front and rear sequences, and
+ * like them is only padded on its trailing side.
+ *
+ * <p>Operations and their time complexities are:
+ *
+ * <ul>
+ *   <li><code>enqueue(T)</code>: O(1), lock-free
+ *   <li><code>dequeue()</code>: O(1)
+ *   <li><code>peek()</code>: O(1)
+ *   <li><code>offerAll(T[], int, int)</code>: O(k), with a single compare-and-set
+ *   <li><code>drainTo(T[])</code>: O(k)
+ * </ul>
+ */
+@SuppressWarnings("unchecked")
+public class MpscArrayQueue<T> extends RingBufferQueue<T> {
+  /** The rear sequence below which slots are known to be free. */
+  final Sequence producerLimit = new Sequence();
+
+  /**
+   * Initializes a new queue with at least the specified capacity, rounded up to a power of two.
+   *
+   * @param capacity
+   */
+  public MpscArrayQueue(int capacity) {
+    super(capacity);
+    this.producerLimit.set(this.getCapacity());
+  }
+
+  /**
+   * Enqueues an element. May be called by any thread.
+   *
+   * @param data
+   * @return the enqueued element, or {@code null} if the queue is full
+   * @throws IllegalArgumentException if the element is {@code null}.
+   */
+  public T enqueue(T data) {
+    checkNotNull(data);
+
+    long tail = this.claim();
+
+    if (tail == -1) return null;
+
+    this.buffer.lazySet((int) tail & this.mask, data);
+    return data;
+  }
+
+  /**
+   * Dequeues the front element. Must only be called by the consumer.
+   *
+   * <p>If the front slot has been claimed by a producer that has not stored its element yet, spins
+   * until it has.
+   *
+   * @return the dequeued element, or {@code null} if the queue is empty
+   */
+  public T dequeue() {
+    long head = this.head.get();
+    int index = (int) head & this.mask;
+    T data = (T) this.buffer.get(index);
+
+    if (data == null) {
+      if (head == this.tail.get()) return null;
+
+      while ((data = (T) this.buffer.get(index)) == null) Thread.onSpinWait();
+    }
+
+    this.buffer.lazySet(index, null);
+    this.head.lazySet(head + 1);
+    return data;
+  }
+
+  /**
+   * Enqueues as many of the specified elements as fit, claiming all of their slots with a single
+   * compare-and-set. May be called by any thread.
+   *
+   * @param source
+   * @param offset the index of the first element to enqueue
+   * @param length the number of elements to enqueue
+   * @return the number of elements enqueued
+   * @throws IllegalArgumentException if any of the elements is {@code null}; no element is
+   *     enqueued then.
+   */
+  public int offerAll(T[] source, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) checkNotNull(source[i]);
+
+    while (true) {
+      long tail = this.tail.get();
+      int count = (int) Math.min(length, this.freeSlots(tail));
+
+      if (count == 0) return 0;
+
+      if (this.tail.compareAndSet(tail, tail + count)) {
+        for (int i = 0; i < count; i++)
+          this.buffer.lazySet((int) (tail + i) & this.mask, source[offset + i]);
+
+        return count;
+      }
+    }
+  }
+
+  /**
+   * Claims one slot at the rear.
+   *
+   * @return the sequence of the claimed slot, or -1 if the queue is full
+   */
+  private long claim() {
+    while (true) {
+      long tail = this.tail.get();
+
+      if (this.freeSlots(tail) == 0) return -1;
+      if (this.tail.compareAndSet(tail, tail + 1)) return tail;
+    }
+  }
+
+  /**
+   * Returns the number of free slots from the specified rear sequence, reading the front sequence
+   * only if the shared limit says there may be none.
+   *
+   * @param tail
+   * @return the number of free slots, which may be an underestimate
+   */
+  private long freeSlots(long tail) {
+    long limit = this.producerLimit.get();
+
+    if (tail >= limit) {
+      limit = this.head.get() + this.getCapacity();
+
+      if (tail >= limit) return 0;
+
+      this.producerLimit.set(limit);
+    }
+
+    return limit - tail;
+  }
+}
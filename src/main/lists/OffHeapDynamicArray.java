@@ -0,0 +1,202 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A dynamic array of fixed-size records stored outside the Java heap, in a direct {@code
+ * ByteBuffer}.
+ *
+ * <p>Every record is {@code recordSize} bytes. Records are copied in from and out to caller
+ * buffers, and single fields can be read and written in place by their byte offset within the
+ * record, so no object is allocated per record and the garbage collector never scans the data.
+ * Shifting uses the bulk {@code ByteBuffer.put}, which is a native memory move.
+ *
+ * <p>A direct buffer can hold at most 2 GiB, so {@code capacity * recordSize} must fit in an
+ * {@code int}. Call {@link #close()} once the array is no longer needed; any later use fails.
+ *
+ * <p>Operations with their time complexities are:
+ *
+ * <ul>
+ *   <li><code>shrinkCapacity()</code>: O(n)
+ *   <li><code>growCapacity()</code>: O(n)
+ *   <li><code>append(ByteBuffer)</code>: O(1)
+ *   <li><code>insert(ByteBuffer, int)</code>: O(n)
+ *   <li><code>remove()</code>: O(1)
+ *   <li><code>remove(int)</code>: O(n)
+ *   <li><code>get</code>: O(1)
+ * </ul>
+ */
+public class OffHeapDynamicArray implements AutoCloseable {
+  ByteBuffer buffer; // The underlying off-heap memory, or null once closed
+  int recordSize; // The number of bytes per record
+  int length; // The number of records in this array
+
+  public OffHeapDynamicArray(int recordSize) {
+    this(recordSize, 10);
+  }
+
+  /**
+   * Initializes a new array.
+   *
+   * @param recordSize the number of bytes per record
+   * @param initialCapacity the initial number of records
+   * @throws IllegalArgumentException if the record size is below 1.
+   */
+  public OffHeapDynamicArray(int recordSize, int initialCapacity) {
+    if (recordSize < 1) throw new IllegalArgumentException("Illegal record size: " + recordSize);
+
+    this.recordSize = recordSize;
+    this.buffer = allocate(Math.multiplyExact(initialCapacity, recordSize));
+    this.length = 0;
+  }
+
+  static ByteBuffer allocate(int bytes) {
+    return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+  }
+
+  public int getLength() {
+    return this.length;
+  }
+
+  public int getCapacity() {
+    return this.buffer.capacity() / this.recordSize;
+  }
+
+  public int getRecordSize() {
+    return this.recordSize;
+  }
+
+  public boolean isEmpty() {
+    return this.length == 0;
+  }
+
+  private void reallocate(int capacity) {
+    ByteBuffer newBuffer = allocate(Math.multiplyExact(capacity, this.recordSize));
+    newBuffer.put(0, this.buffer, 0, this.length * this.recordSize);
+
+    this.buffer = newBuffer;
+  }
+
+  public OffHeapDynamicArray shrinkCapacity() {
+    this.reallocate(this.length);
+    return this;
+  }
+
+  public OffHeapDynamicArray growCapacity() {
+    this.reallocate(Math.max(this.getCapacity() * 2, 1));
+    return this;
+  }
+
+  /**
+   * Appends a record, copied from the specified buffer starting at its position. The position of
+   * the buffer is unchanged.
+   *
+   * @param record
+   * @return this array
+   */
+  public OffHeapDynamicArray append(ByteBuffer record) {
+    if (this.length + 1 > this.getCapacity()) this.growCapacity();
+
+    this.buffer.put(this.length++ * this.recordSize, record, record.position(), this.recordSize);
+    return this;
+  }
+
+  /**
+   * Inserts a record at the specified index, copied from the specified buffer starting at its
+   * position. The position of the buffer is unchanged.
+   *
+   * @param record
+   * @param index
+   * @return this array
+   */
+  public OffHeapDynamicArray insert(ByteBuffer record, int index) {
+    if (this.length + 1 > this.getCapacity()) this.growCapacity();
+
+    int offset = index * this.recordSize;
+
+    // Overlapping bulk puts within one buffer behave like a memmove.
+    this.buffer.put(
+        offset + this.recordSize, this.buffer, offset, (this.length++ - index) * this.recordSize);
+    this.buffer.put(offset, record, record.position(), this.recordSize);
+    return this;
+  }
+
+  public OffHeapDynamicArray remove() {
+    this.length--;
+    return this;
+  }
+
+  public OffHeapDynamicArray remove(int index) {
+    int offset = index * this.recordSize;
+
+    this.buffer.put(
+        offset, this.buffer, offset + this.recordSize, (this.length - index - 1) * this.recordSize);
+
+    return this.remove();
+  }
+
+  /**
+   * Copies a record into the specified buffer starting at its position. The position of the buffer
+   * is unchanged.
+   *
+   * @param index
+   * @param target
+   * @return {@code target}
+   */
+  public ByteBuffer get(int index, ByteBuffer target) {
+    target.put(target.position(), this.buffer, index * this.recordSize, this.recordSize);
+    return target;
+  }
+
+  /**
+   * Reads a {@code long} field of a record in place.
+   *
+   * @param index the index of the record
+   * @param fieldOffset the byte offset of the field within the record
+   * @return the value of the field
+   */
+  public long getLong(int index, int fieldOffset) {
+    return this.buffer.getLong(index * this.recordSize + fieldOffset);
+  }
+
+  public int getInt(int index, int fieldOffset) {
+    return this.buffer.getInt(index * this.recordSize + fieldOffset);
+  }
+
+  public double getDouble(int index, int fieldOffset) {
+    return this.buffer.getDouble(index * this.recordSize + fieldOffset);
+  }
+
+  /**
+   * Writes a {@code long} field of a record in place.
+   *
+   * @param index the index of the record
+   * @param fieldOffset the byte offset of the field within the record
+   * @param value
+   * @return this array
+   */
+  public OffHeapDynamicArray setLong(int index, int fieldOffset, long value) {
+    this.buffer.putLong(index * this.recordSize + fieldOffset, value);
+    return this;
+  }
+
+  public OffHeapDynamicArray setInt(int index, int fieldOffset, int value) {
+    this.buffer.putInt(index * this.recordSize + fieldOffset, value);
+    return this;
+  }
+
+  public OffHeapDynamicArray setDouble(int index, int fieldOffset, double value) {
+    this.buffer.putDouble(index * this.recordSize + fieldOffset, value);
+    return this;
+  }
+
+  /**
+   * Releases the off-heap memory of this array. Any later use of the array fails.
+   *
+   * <p>Direct buffers cannot be freed explicitly, so the memory is returned once the buffer is
+   * garbage collected; dropping the only reference here makes that possible right away.
+   */
+  public void close() {
+    this.buffer = null;
+    this.length = 0;
+  }
+}
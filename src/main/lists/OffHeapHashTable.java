@@ -0,0 +1,348 @@
+import java.nio.ByteBuffer;
+import java.util.function.LongToIntFunction;
+
+/**
+ * A hash table from primitive {@code long} keys to fixed-size value records, stored outside the
+ * Java heap in a direct {@code ByteBuffer}.
+ *
+ * <p>Collisions are resolved with Robin Hood linear probing and backward-shift deletion, as in
+ * {@link LongHashTable}. Each slot is laid out as the key (8 bytes), the probe length (4 bytes, 0
+ * for an empty slot), then the value record ({@code valueSize} bytes). Two extra slots at the end
+ * of the buffer hold the entry being carried while probing, so inserting never allocates.
+ *
+ * <p>A direct buffer can hold at most 2 GiB, so {@code (capacity + 2) * (12 + valueSize)} must fit
+ * in an {@code int}. Call {@link #close()} once the table is no longer needed; any later use fails.
+ *
+ * <p>All operations ({@code put}, {@code remove}, and {@code get}) are O(1) at best (when the load
+ * factor is good and the hash function is random) and O(n) at worst (when a hash function produces
+ * highest clustering).
+ */
+public class OffHeapHashTable implements AutoCloseable {
+  static final int KEY = 0;
+  static final int PROBE = 8;
+  static final int VALUE = 12;
+
+  /** The slots of this hash table, or {@code null} once closed. */
+  ByteBuffer buffer;
+  /** The number of bytes per value record. */
+  int valueSize;
+  /** The number of bytes per slot. */
+  int slotSize;
+  /**
+   * The maximum load factor allowed for this hash table, which must be below 1.0. Defaults to 0.75.
+   */
+  float loadFactor = 0.75f;
+  /**
+   * The hash function used to calculate the home slot for an incoming key, returning an integer
+   * between 0 (inclusive) and the capacity (exclusive).
+   */
+  LongToIntFunction hashFunction = k -> Math.floorMod(k, this.capacity); // h(k)
+  /** The number of key-value pairs that are stored by this hash table. */
+  int length;
+  /** The number of slots in this hash table, not counting the two carry slots. */
+  int capacity;
+
+  /**
+   * Initializes a new hash table with 16 slots and a maximum load factor of 0.75.
+   *
+   * @param valueSize the number of bytes per value record
+   */
+  public OffHeapHashTable(int valueSize) {
+    this(valueSize, 16);
+  }
+
+  /**
+   * Initializes a new hash table with the specified initial capacity and a maximum load factor of
+   * 0.75.
+   *
+   * @param valueSize the number of bytes per value record
+   * @param initialCapacity
+   * @throws IllegalArgumentException if the value size is negative.
+   */
+  public OffHeapHashTable(int valueSize, int initialCapacity) {
+    if (valueSize < 0) throw new IllegalArgumentException("Illegal value size: " + valueSize);
+
+    this.valueSize = valueSize;
+    this.slotSize = VALUE + valueSize;
+    this.capacity = initialCapacity;
+    this.buffer =
+        OffHeapDynamicArray.allocate(Math.multiplyExact(initialCapacity + 2, this.slotSize));
+    this.length = 0;
+  }
+
+  /**
+   * Returns the number of key-value pairs in this hash table.
+   *
+   * @return the number of key-value pairs in this hash table
+   */
+  public int getLength() {
+    return this.length;
+  }
+
+  /**
+   * Returns the number of slots in this hash table.
+   *
+   * @return the number of slots in this hash table
+   */
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Returns the number of bytes of the value record stored with each key.
+   *
+   * @return the size of a value record in bytes
+   */
+  public int getValueSize() {
+    return this.valueSize;
+  }
+
+  /**
+   * Returns the function that maps a key to its home slot.
+   *
+   * @return the hash function of this hash table
+   */
+  public LongToIntFunction getHashFunction() {
+    return this.hashFunction;
+  }
+
+  /**
+   * Sets the hash function for this hash table.
+   *
+   * <p>Existing keys are not rehashed, so this should be called while the table is empty.
+   *
+   * @param hashFunction
+   */
+  public void setHashFunction(LongToIntFunction hashFunction) {
+    this.hashFunction = hashFunction;
+  }
+
+  /** Returns zeroed memory for the specified number of slots plus the two carry slots. */
+  ByteBuffer allocate(int capacity) {
+    return OffHeapDynamicArray.allocate(Math.multiplyExact(capacity + 2, this.slotSize));
+  }
+
+  private int offset(int slot) {
+    return slot * this.slotSize;
+  }
+
+  private int probe(int slot) {
+    return this.buffer.getInt(this.offset(slot) + PROBE);
+  }
+
+  private long key(int slot) {
+    return this.buffer.getLong(this.offset(slot) + KEY);
+  }
+
+  /** Copies a whole slot within the buffer. */
+  private void copySlot(int from, int to) {
+    this.buffer.put(this.offset(to), this.buffer, this.offset(from), this.slotSize);
+  }
+
+  /**
+   * Inserts the entry in the first carry slot, which must not already be in the table, using Robin
+   * Hood probing.
+   */
+  private void insertCarried() {
+    int carry = this.capacity;
+    int spare = this.capacity + 1;
+    int index = this.hashFunction.applyAsInt(this.key(carry));
+
+    this.buffer.putInt(this.offset(carry) + PROBE, 1);
+
+    while (true) {
+      int probe = this.probe(index);
+
+      if (probe == 0) {
+        this.copySlot(carry, index);
+        return;
+      }
+
+      // The resident is closer to its home than we are: take its slot and carry it onwards.
+      if (probe < this.probe(carry)) {
+        this.copySlot(index, spare);
+        this.copySlot(carry, index);
+        this.copySlot(spare, carry);
+      }
+
+      if (++index == this.capacity) index = 0;
+      this.buffer.putInt(this.offset(carry) + PROBE, this.probe(carry) + 1);
+    }
+  }
+
+  /**
+   * Returns the slot index of the specified key, or -1 if the key is not in this table.
+   *
+   * @param key
+   * @return the slot index of the key or -1
+   */
+  private int indexOf(long key) {
+    // An empty table may have no slots at all, which the hash function cannot reduce to.
+    if (this.length == 0) return -1;
+
+    int index = this.hashFunction.applyAsInt(key);
+
+    for (int probe = 1; this.probe(index) >= probe; probe++) {
+      if (this.key(index) == key) return index;
+      if (++index == this.capacity) index = 0;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Puts a key-value pair into this hash table, overriding the value if the key already exists.
+   *
+   * <p>The value record is copied from the specified buffer starting at its position. The position
+   * of the buffer is unchanged.
+   *
+   * <p>If adding would cause the hash table to exceed the maximum load factor, double the capacity
+   * before adding.
+   *
+   * @param key
+   * @param value
+   */
+  public void put(long key, ByteBuffer value) {
+    int index = this.indexOf(key);
+
+    if (index != -1) {
+      this.buffer.put(this.offset(index) + VALUE, value, value.position(), this.valueSize);
+      return;
+    }
+
+    if ((float) (this.length + 1) / this.capacity > this.loadFactor) this.expand();
+
+    int carry = this.offset(this.capacity);
+    this.buffer.putLong(carry + KEY, key);
+    this.buffer.put(carry + VALUE, value, value.position(), this.valueSize);
+    this.insertCarried();
+
+    this.length++;
+  }
+
+  /**
+   * Removes a key-value pair from this hash table, if it exists.
+   *
+   * @param key
+   * @return {@code true} if the key was in the table
+   */
+  public boolean remove(long key) {
+    int index = this.indexOf(key);
+
+    if (index == -1) return false;
+
+    int next = index + 1 == this.capacity ? 0 : index + 1;
+
+    // Shift back until an empty slot or a key that already sits in its home slot.
+    while (this.probe(next) > 1) {
+      this.copySlot(next, index);
+      this.buffer.putInt(this.offset(index) + PROBE, this.probe(index) - 1);
+
+      index = next;
+      if (++next == this.capacity) next = 0;
+    }
+
+    this.buffer.putInt(this.offset(index) + PROBE, 0);
+
+    this.length--;
+    return true;
+  }
+
+  /**
+   * Copies the value record of the specified key into the specified buffer starting at its
+   * position. The position of the buffer is unchanged.
+   *
+   * @param key
+   * @param target
+   * @return {@code true} if the key was found, {@code false} if the target was left untouched
+   */
+  public boolean get(long key, ByteBuffer target) {
+    int index = this.indexOf(key);
+
+    if (index == -1) return false;
+
+    target.put(target.position(), this.buffer, this.offset(index) + VALUE, this.valueSize);
+    return true;
+  }
+
+  /**
+   * Reads a {@code long} field of the value record of the specified key in place.
+   *
+   * @param key
+   * @param fieldOffset the byte offset of the field within the value record
+   * @param missingValue the value to return if the key is not in the table
+   * @return the value of the field, or {@code missingValue}
+   */
+  public long getLong(long key, int fieldOffset, long missingValue) {
+    int index = this.indexOf(key);
+
+    if (index == -1) return missingValue;
+
+    return this.buffer.getLong(this.offset(index) + VALUE + fieldOffset);
+  }
+
+  /**
+   * Returns whether the specified key is in this hash table.
+   *
+   * @param key
+   * @return {@code true} if the key is in the table
+   */
+  public boolean containsKey(long key) {
+    return this.indexOf(key) != -1;
+  }
+
+  void resize(int newCapacity) {
+    ByteBuffer oldBuffer = this.buffer;
+    int oldCapacity = this.capacity;
+
+    this.buffer = this.allocate(this.capacity = newCapacity);
+
+    for (int slot = 0; slot < oldCapacity; slot++) {
+      int offset = slot * this.slotSize;
+
+      if (oldBuffer.getInt(offset + PROBE) != 0) {
+        this.buffer.put(this.offset(this.capacity), oldBuffer, offset, this.slotSize);
+        this.insertCarried();
+      }
+    }
+  }
+
+  /**
+   * Resizes this hash table such that the new load factor is equal to or higher than (but remains
+   * closest to) the specified load factor.
+   *
+   * @param minimumLoadFactor
+   */
+  public void resize(float minimumLoadFactor) {
+    this.resize(Math.max((int) Math.ceil(this.length / minimumLoadFactor), this.length + 1));
+  }
+
+  private void expand() {
+    this.resize(Math.max(this.capacity * 2, 1));
+  }
+
+  /**
+   * Returns the clustering measure of this hash table over the home slots of its keys.
+   *
+   * @return the clustering of this hash table
+   * @see HashTable#measureClustering()
+   */
+  public float measureClustering() {
+    int[] probes = new int[this.capacity];
+
+    for (int slot = 0; slot < this.capacity; slot++) probes[slot] = this.probe(slot);
+
+    return OpenAddressing.measureClustering(probes, this.length);
+  }
+
+  /**
+   * Drops this table's reference to its off-heap memory, which is released once the buffer is
+   * garbage collected. Any later use of the table fails.
+   *
+   * @see OffHeapDynamicArray#close()
+   */
+  public void close() {
+    this.buffer = null;
+    this.length = 0;
+  }
+}
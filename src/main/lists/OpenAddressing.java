@@ -0,0 +1,64 @@
+/**
+ * Helpers shared by the primitive-keyed open-addressing hash tables.
+ *
+ * <p>These tables store one probe length per slot: 0 for an empty slot, or the Robin Hood probe
+ * distance of the key in that slot plus one.
+ *
+ * @see IntHashTable
+ * @see LongHashTable
+ * @see IntIntHashTable
+ * @see LongLongHashTable
+ */
+class OpenAddressing {
+  private OpenAddressing() {}
+
+  /**
+   * Returns the clustering measure of an open-addressing table from its probe lengths.
+   *
+   * <p>Robin Hood probing keeps keys with the same home slot next to each other, so the number of
+   * keys per home slot is the length of each run of equal homes.
+   *
+   * @param probes the probe length of every slot
+   * @param length the number of keys in the table
+   * @return the clustering of the table
+   * @see HashTable#measureClustering()
+   */
+  static float measureClustering(int[] probes, int length) {
+    int capacity = probes.length;
+
+    // Start right before an empty slot or a key in its home slot, so that no run wraps around the
+    // start of the scan. A full table may have no empty slot at all.
+    int start = 0;
+    while (start < capacity && probes[(start + 1) % capacity] > 1) start++;
+
+    float squaresSum = 0;
+    int runHome = -1;
+    int runLength = 0;
+
+    for (int i = 1; i <= capacity; i++) {
+      int index = (start + i) % capacity;
+
+      if (probes[index] == 0) continue;
+
+      int home = Math.floorMod(index - probes[index] + 1, capacity);
+
+      if (home != runHome) {
+        squaresSum += Math.pow(runLength, 2);
+        runHome = home;
+        runLength = 0;
+      }
+
+      runLength++;
+    }
+
+    squaresSum += Math.pow(runLength, 2);
+
+    int m = capacity;
+    int n = length;
+
+    // C = (m / (n - 1))((sum_i(x_i^2) / n) - 1) where x_i is the number of keys whose home is
+    // slot i.
+
+    return ((float) m / (n - 1)) * (squaresSum / n - 1);
+  }
+}
@@ -0,0 +1,381 @@
+import java.util.function.ToIntFunction;
+
+/**
+ * An implementation of the hash table data structure that uses open addressing with Robin Hood
+ * linear probing to resolve collisions.
+ *
+ * <p>Unlike {@link HashTable}, no node is allocated per key-value pair. Keys and values are stored
+ * in two parallel flat arrays, and a third array of the same length stores the probe distance of
+ * each slot, i.e. how far the key in that slot is from the index its hash points to. A slot is
+ * empty if its key is {@code null}.
+ *
+ * <p>When inserting, a key that has probed further than the key currently occupying a slot takes
+ * that slot, and the displaced key continues probing ("robbing from the rich"). This keeps probe
+ * distances short and similar to each other, and lets lookups stop as soon as they meet a key that
+ * is closer to its home slot than the searched key would be. Removal uses backward-shift deletion
+ * instead of tombstones: the following keys of the same cluster are moved one slot back.
+ *
+ * <p>All operations ({@code put}, {@code remove}, and {@code get}) are O(1) at best (when the load
+ * factor is good and the hash function is random) and O(n) at worst (when a hash function produces
+ * highest clustering).
+ */
+@SuppressWarnings("unchecked")
+public class OpenAddressingHashTable<K, V> {
+  /** The keys of this hash table, or {@code null} for empty slots. */
+  Object[] keys;
+  /** The values of this hash table, at the same indices as their keys. */
+  Object[] values;
+  /** The probe distance of the key in each slot from the slot its hash points to. */
+  int[] distances;
+  /**
+   * The maximum load factor allowed for this hash table.
+   *
+   * <p>If putting a new key would cause the hash table to exceed this max amount, the table will
+   * double its size.
+   *
+   * <p>Since every key occupies its own slot, the load factor must be below 1.0. Probe lengths grow
+   * quickly past 0.9, so this implementation defaults to 0.75.
+   *
+   * @see #put(Object, Object)
+   */
+  float loadFactor = 0.75f;
+  /**
+   * The hash function used to calculate the home slot for an incoming key-value pair.
+   *
+   * <p>Hash function takes only one parameter, the hash code of the key, and always returns an
+   * integer between 0 (inclusive) and the capacity (exclusive).
+   */
+  ToIntFunction<Integer> hashFunction = k -> Math.floorMod(k, this.capacity); // h(k)
+  /** The number of key-value pairs that are stored by this hash table. */
+  int length;
+  /**
+   * The number of slots in this hash table.
+   *
+   * <p>While this is usually the same as {@code this.keys.length}, this variable was introduced so
+   * the hashing function could refer to the new capacity instead of the current capacity.
+   *
+   * @see #resize(int)
+   */
+  int capacity;
+
+  /** Initializes a new hash table with 16 slots and a maximum load factor of 0.75. */
+  public OpenAddressingHashTable() {
+    this(16);
+  }
+
+  /**
+   * Initializes a new hash table with the specified initial capacity and a maximum load factor of
+   * 0.75.
+   *
+   * @param initialCapacity
+   */
+  public OpenAddressingHashTable(int initialCapacity) {
+    this.allocate(this.capacity = initialCapacity);
+    this.length = 0;
+  }
+
+  /**
+   * Initializes a new hash table with the specified initial capacity and maximum load factor.
+   *
+   * @param initialCapacity
+   * @param loadFactor
+   * @throws IllegalArgumentException if the load factor is not between 0 and 1 (exclusive).
+   */
+  public OpenAddressingHashTable(int initialCapacity, float loadFactor) {
+    if (loadFactor <= 0 || loadFactor >= 1)
+      throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+
+    this.allocate(this.capacity = initialCapacity);
+    this.loadFactor = loadFactor;
+    this.length = 0;
+  }
+
+  /**
+   * Returns the number of key-value pairs in this hash table.
+   *
+   * @return the number of key-value pairs in this hash table
+   */
+  public int getLength() {
+    return this.length;
+  }
+
+  /**
+   * Returns the number of slots in this hash table.
+   *
+   * @return the number of slots in this hash table
+   */
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Returns the active hash function of this hash table.
+   *
+   * @return the active hash function of this hash table
+   */
+  public ToIntFunction<Integer> getHashFunction() {
+    return this.hashFunction;
+  }
+
+  /**
+   * Sets the hash function for this hash table.
+   *
+   * <p>Existing keys are not rehashed, so this should be called while the table is empty.
+   *
+   * @param hashFunction
+   */
+  public void setHashFunction(ToIntFunction<Integer> hashFunction) {
+    this.hashFunction = hashFunction;
+  }
+
+  /**
+   * Replaces the slot arrays with empty arrays of the specified capacity.
+   *
+   * @param capacity
+   */
+  private void allocate(int capacity) {
+    this.keys = new Object[capacity];
+    this.values = new Object[capacity];
+    this.distances = new int[capacity];
+  }
+
+  /**
+   * Puts a key-value pair into the slot arrays using Robin Hood probing.
+   *
+   * <p>This function is created for internal use and is shared by {@code put} and {@code resize}.
+   *
+   * @param key
+   * @param value
+   * @return {@code true} if the key was added, {@code false} if the value of an existing key was
+   *     overridden.
+   */
+  private boolean insert(Object key, Object value) {
+    int index = this.hashFunction.applyAsInt(key.hashCode());
+    int distance = 0;
+
+    while (true) {
+      if (this.keys[index] == null) {
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.distances[index] = distance;
+        return true;
+      }
+
+      // A slot with the same key exists. Robin Hood ordering guarantees it is found before the key
+      // would displace anything, so the key being carried is still the incoming one here.
+      if (this.keys[index].equals(key)) {
+        this.values[index] = value;
+        return false;
+      }
+
+      // The resident is closer to its home than we are: take its slot and carry it onwards.
+      if (this.distances[index] < distance) {
+        Object displacedKey = this.keys[index];
+        Object displacedValue = this.values[index];
+        int displacedDistance = this.distances[index];
+
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.distances[index] = distance;
+
+        key = displacedKey;
+        value = displacedValue;
+        distance = displacedDistance;
+      }
+
+      if (++index == this.capacity) index = 0;
+      distance++;
+    }
+  }
+
+  /**
+   * Returns the slot index of the specified key, or -1 if the key is not in this table.
+   *
+   * @param key
+   * @return the slot index of the key or -1
+   */
+  private int indexOf(Object key) {
+    int index = this.hashFunction.applyAsInt(key.hashCode());
+
+    // A key that is closer to its home than we have probed means the key cannot be further along.
+    for (int distance = 0;
+        this.keys[index] != null && this.distances[index] >= distance;
+        distance++) {
+      if (this.keys[index].equals(key)) return index;
+      if (++index == this.capacity) index = 0;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Puts a new key-value pair into this hash table.
+   *
+   * <p>If the key already exists, overrides its value only. No object is allocated unless the table
+   * has to grow.
+   *
+   * <p>If adding would cause the hash table to exceed the maximum load factor, double the capacity
+   * before adding.
+   *
+   * @param key
+   * @param value
+   */
+  public void put(K key, V value) {
+    // Double in size if the load factor would be exceeded.
+    if ((float) (this.length + 1) / this.capacity > this.loadFactor) this.expand();
+
+    if (this.insert(key, value)) this.length++;
+  }
+
+  /**
+   * Removes a key-value pair from this hash table, if it exists.
+   *
+   * <p>The keys following the removed one in its cluster are shifted one slot back so lookups never
+   * have to skip over deleted slots.
+   *
+   * @param key
+   * @return the value that was matched with the specified key in the hash table or {@code null} if
+   *     the key was not found in the table.
+   */
+  public V remove(K key) {
+    int index = this.indexOf(key);
+
+    if (index == -1) return null;
+
+    V removedValue = (V) this.values[index];
+    int next = index + 1 == this.capacity ? 0 : index + 1;
+
+    // Shift back until an empty slot or a key that already sits in its home slot.
+    while (this.keys[next] != null && this.distances[next] > 0) {
+      this.keys[index] = this.keys[next];
+      this.values[index] = this.values[next];
+      this.distances[index] = this.distances[next] - 1;
+
+      index = next;
+      if (++next == this.capacity) next = 0;
+    }
+
+    this.keys[index] = null;
+    this.values[index] = null;
+    this.distances[index] = 0;
+
+    this.length--;
+    return removedValue;
+  }
+
+  /**
+   * Retrieves the value in this table that corresponds to the specified key.
+   *
+   * @param key
+   * @return the value in this table that matches with the key, or {@code null} if such a value does
+   *     not exist in the table.
+   */
+  public V get(K key) {
+    int index = this.indexOf(key);
+
+    return index == -1 ? null : (V) this.values[index];
+  }
+
+  /**
+   * Resizes this hash table to a new capacity, rehashing all existing key-value pairs into new slot
+   * arrays.
+   *
+   * @param newCapacity
+   */
+  private void resize(int newCapacity) {
+    Object[] oldKeys = this.keys;
+    Object[] oldValues = this.values;
+
+    this.allocate(this.capacity = newCapacity);
+
+    for (int i = 0; i < oldKeys.length; i++)
+      if (oldKeys[i] != null) this.insert(oldKeys[i], oldValues[i]);
+  }
+
+  /**
+   * Resizes this hash table such that the new load factor is equal to or higher than (but remains
+   * closest to) the specified load factor.
+   *
+   * <p>The table always keeps at least one empty slot so that probing terminates.
+   *
+   * @param minimumLoadFactor
+   */
+  public void resize(float minimumLoadFactor) {
+    this.resize(Math.max((int) Math.ceil(this.length / minimumLoadFactor), this.length + 1));
+  }
+
+  /**
+   * Doubles the capacity, or number of slots.
+   *
+   * <p>Used internally only for the {@code put} method.
+   *
+   * @see #put(Object, Object)
+   */
+  private void expand() {
+    this.resize(Math.max(this.capacity * 2, 1));
+  }
+
+  /**
+   * Returns the clustering measure of this hash table, which tells us how (not) random the key
+   * distribution is.
+   *
+   * <p>The measure is computed over the home slots of the keys, so it is directly comparable to
+   * {@link HashTable#measureClustering()} for the same hash function and capacity. Its meanings are
+   * as follows:
+   *
+   * <ul>
+   *   <li>around 1.0: the hash function is uniform;
+   *   <li>greater than 1.0: clustering slows down the performance by a factor of the clustering
+   *       measure C;
+   *   <li>less than 1.0: the hash function is spreading elements out more evenly than a random hash
+   *       function would;
+   *   <li>0.0: the hash function is perfect and every key-value pair is in its own home slot.
+   * </ul>
+   *
+   * @return the clustering of this hash table
+   */
+  public float measureClustering() {
+    // Robin Hood probing keeps keys with the same home slot next to each other, so the number of
+    // keys per home slot is the length of each run of equal homes. Start right before an empty slot
+    // or a key in its home slot, so that no run wraps around the start of the scan. A full table
+    // may have no empty slot at all.
+    int start = 0;
+
+    while (start < this.capacity) {
+      int next = (start + 1) % this.capacity;
+
+      if (this.keys[next] == null || this.distances[next] == 0) break;
+      start++;
+    }
+
+    float squaresSum = 0;
+    int runHome = -1;
+    int runLength = 0;
+
+    for (int i = 1; i <= this.capacity; i++) {
+      int index = (start + i) % this.capacity;
+
+      if (this.keys[index] == null) continue;
+
+      int home = Math.floorMod(index - this.distances[index], this.capacity);
+
+      if (home != runHome) {
+        squaresSum += Math.pow(runLength, 2);
+        runHome = home;
+        runLength = 0;
+      }
+
+      runLength++;
+    }
+
+    squaresSum += Math.pow(runLength, 2);
+
+    int m = this.capacity;
+    int n = this.length;
+
+    // C = (m / (n - 1))((sum_i(x_i^2) / n) - 1) where x_i is the number of keys whose home is
+    // slot i.
+
+    return ((float) m / (n - 1)) * (squaresSum / n - 1);
+  }
+}
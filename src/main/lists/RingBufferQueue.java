@@ -0,0 +1,114 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The common part of the lock-free ring-buffer queues.
+ *
+ * <p>Like {@link ArrayQueue}, these queues are cyclic buffers. Unlike it, the front and the rear
+ * are ever-increasing sequences instead of indices, so the length is their difference and no
+ * shared length field is needed. The capacity is a power of two, so a sequence is turned into an
+ * index with a mask instead of a modulo.
+ *
+ * <p>Slots and sequences are written with release semantics and read with acquire semantics, so a
+ * consumer that sees an element in a slot also sees everything the producer wrote before storing
+ * it. The head and the tail are allocated one after the other, and each is followed by padding, so
+ * they sit on different cache lines and advancing one does not invalidate the other.
+ *
+ * @see SpscArrayQueue
+ * @see MpscArrayQueue
+ */
+@SuppressWarnings("unchecked")
+abstract class RingBufferQueue<T> implements Queue<T> {
+  /**
+   * A sequence followed by a cache line of padding, so that a sequence allocated right after it is
+   * on another line. Only the trailing side is padded: the fields of a subclass are laid out after
+   * those of {@code AtomicLong}, so whatever precedes the sequence in memory may share its line.
+   */
+  @SuppressWarnings("serial")
+  static class Sequence extends AtomicLong {
+    long p1, p2, p3, p4, p5, p6, p7;
+  }
+
+  final AtomicReferenceArray<Object> buffer;
+  final int mask;
+  /** The sequence of the next element to dequeue. Only written by the consumer. */
+  final Sequence head = new Sequence();
+  /** The sequence of the next element to enqueue. */
+  final Sequence tail = new Sequence();
+
+  /**
+   * Initializes a new queue with at least the specified capacity, rounded up to a power of two.
+   *
+   * @param capacity
+   * @throws IllegalArgumentException if the capacity is below 1 or above 2^30.
+   */
+  RingBufferQueue(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30)
+      throw new IllegalArgumentException("Illegal capacity: " + capacity);
+
+    capacity = Integer.highestOneBit(capacity - 1) << 1;
+    if (capacity == 0) capacity = 1;
+
+    this.buffer = new AtomicReferenceArray<Object>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Returns the number of elements in this queue, which may already be stale if other threads are
+   * using it.
+   *
+   * @return the number of elements in this queue
+   */
+  public int getLength() {
+    // Read the head first so the difference cannot be negative.
+    long head = this.head.get();
+    return (int) Math.min(this.tail.get() - head, this.mask + 1);
+  }
+
+  public int getCapacity() {
+    return this.mask + 1;
+  }
+
+  public boolean isEmpty() {
+    return this.head.get() == this.tail.get();
+  }
+
+  /**
+   * Returns the front element without dequeueing it. Must only be called by the consumer.
+   *
+   * @return the front element, or {@code null} if the queue is empty
+   */
+  public T peek() {
+    return (T) this.buffer.get((int) this.head.get() & this.mask);
+  }
+
+  /**
+   * Dequeues up to {@code target.length} elements into the specified array, publishing the new
+   * front once for the whole batch. Must only be called by the consumer.
+   *
+   * @param target
+   * @return the number of elements dequeued
+   */
+  public int drainTo(T[] target) {
+    long head = this.head.get();
+    int count = 0;
+
+    while (count < target.length) {
+      int index = (int) (head + count) & this.mask;
+      Object data = this.buffer.get(index);
+
+      // An empty slot is either the rear, or a slot a producer has claimed but not yet filled.
+      if (data == null) break;
+
+      target[count++] = (T) data;
+      this.buffer.lazySet(index, null);
+    }
+
+    this.head.lazySet(head + count);
+    return count;
+  }
+
+  static void checkNotNull(Object data) {
+    if (data == null) throw new IllegalArgumentException("Null elements are not allowed");
+  }
+}
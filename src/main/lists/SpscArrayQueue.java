@@ -0,0 +1,97 @@
+/**
+ * A lock-free queue for exactly one producer thread and one consumer thread.
+ *
+ * <p>Only the producer calls {@code enqueue} and {@code offerAll}, and only the consumer calls
+ * {@code dequeue}, {@code peek}, and {@code drainTo}. Neither thread ever reads the other's
+ * sequence: the producer knows the queue is full when the slot at the rear is still occupied, and
+ * the consumer knows it is empty when the slot at the front is still empty. Each side therefore
+ * only touches the slots it is working on, and publishes its own sequence with a release store.
+ *
+ * <p>Operations and their time complexities are:
+ *
+ * <ul>
+ *   <li><code>enqueue(T)</code>: O(1)
+ *   <li><code>dequeue()</code>: O(1)
+ *   <li><code>peek()</code>: O(1)
+ *   <li><code>offerAll(T[], int, int)</code>: O(k)
+ *   <li><code>drainTo(T[])</code>: O(k)
+ * </ul>
+ */
+@SuppressWarnings("unchecked")
+public class SpscArrayQueue<T> extends RingBufferQueue<T> {
+  /**
+   * Initializes a new queue with at least the specified capacity, rounded up to a power of two.
+   *
+   * @param capacity
+   */
+  public SpscArrayQueue(int capacity) {
+    super(capacity);
+  }
+
+  /**
+   * Enqueues an element. Must only be called by the producer.
+   *
+   * @param data
+   * @return the enqueued element, or {@code null} if the queue is full
+   * @throws IllegalArgumentException if the element is {@code null}.
+   */
+  public T enqueue(T data) {
+    checkNotNull(data);
+
+    long tail = this.tail.get();
+    int index = (int) tail & this.mask;
+
+    if (this.buffer.get(index) != null) return null;
+
+    this.buffer.lazySet(index, data);
+    this.tail.lazySet(tail + 1);
+    return data;
+  }
+
+  /**
+   * Dequeues the front element. Must only be called by the consumer.
+   *
+   * @return the dequeued element, or {@code null} if the queue is empty
+   */
+  public T dequeue() {
+    long head = this.head.get();
+    int index = (int) head & this.mask;
+    T data = (T) this.buffer.get(index);
+
+    if (data == null) return null;
+
+    this.buffer.lazySet(index, null);
+    this.head.lazySet(head + 1);
+    return data;
+  }
+
+  /**
+   * Enqueues as many of the specified elements as fit, publishing the new rear once for the whole
+   * batch. Must only be called by the producer.
+   *
+   * @param source
+   * @param offset the index of the first element to enqueue
+   * @param length the number of elements to enqueue
+   * @return the number of elements enqueued
+   * @throws IllegalArgumentException if any of the elements is {@code null}; no element is
+   *     enqueued then.
+   */
+  public int offerAll(T[] source, int offset, int length) {
+    // Check every element first: slots are visible to the consumer as soon as they are written.
+    for (int i = offset; i < offset + length; i++) checkNotNull(source[i]);
+
+    long tail = this.tail.get();
+    int count = 0;
+
+    while (count < length) {
+      int index = (int) (tail + count) & this.mask;
+
+      if (this.buffer.get(index) != null) break;
+
+      this.buffer.lazySet(index, source[offset + count++]);
+    }
+
+    this.tail.lazySet(tail + count);
+    return count;
+  }
+}
@@ -0,0 +1,242 @@
+import java.util.Arrays;
+
+/**
+ * A linked list whose nodes each hold a small array of elements.
+ *
+ * <p>Each node, or chunk, holds up to {@code chunkCapacity} elements contiguously, so walking the
+ * list touches one object per chunk instead of one per element. A full chunk is split in half
+ * before inserting into it, and a chunk that falls below half full is merged with the next one if
+ * they fit together.
+ *
+ * <p>To avoid walking the chunks one by one, the list also keeps a directory of the chunks in order
+ * along with the index of the first element of each. Positional operations binary search the
+ * directory, then index into the chunk's array. Inserting or deleting only invalidates the entries
+ * after the chunk that changed, and those are rebuilt lazily the next time an index past that
+ * chunk is looked up.
+ *
+ * <p>Operations with their complexities, where B is the chunk capacity, are:
+ *
+ * <ul>
+ *   <li><code>get(int)</code>: O(log(n / B)), plus O(n / B) to rebuild the directory after a change
+ *       before the index
+ *   <li><code>insert(T, int)</code>: O(B + log(n / B))
+ *   <li><code>insertAtHead(T)</code>: O(B)
+ *   <li><code>delete(int)</code>: O(B + log(n / B))
+ *   <li><code>deleteAtHead()</code>: O(B)
+ * </ul>
+ */
+@SuppressWarnings("unchecked")
+public class UnrolledLinkedList<T> {
+  static class Chunk {
+    final Object[] elements;
+    int size;
+    Chunk next;
+
+    Chunk(int capacity) {
+      this.elements = new Object[capacity];
+    }
+  }
+
+  Chunk head; // The first chunk, or null if the list is empty
+  int length;
+  int chunkCapacity;
+  /** The chunks in order. Only the first {@code indexedChunks} entries are up to date. */
+  Chunk[] directory = new Chunk[8];
+  /** The index of the first element of each chunk in {@code directory}. */
+  int[] starts = new int[8];
+  /** The number of entries at the start of the directory that are up to date. */
+  int indexedChunks;
+
+  public UnrolledLinkedList() {
+    this(64);
+  }
+
+  /**
+   * Initializes a new list.
+   *
+   * @param chunkCapacity the maximum number of elements per chunk
+   * @throws IllegalArgumentException if the chunk capacity is below 2.
+   */
+  public UnrolledLinkedList(int chunkCapacity) {
+    if (chunkCapacity < 2)
+      throw new IllegalArgumentException("Illegal chunk capacity: " + chunkCapacity);
+
+    this.chunkCapacity = chunkCapacity;
+    this.length = 0;
+  }
+
+  public int getLength() {
+    return this.length;
+  }
+
+  public boolean isEmpty() {
+    return this.length == 0;
+  }
+
+  public int getChunkCapacity() {
+    return this.chunkCapacity;
+  }
+
+  /**
+   * Returns the position in the directory of the chunk that holds the specified index, extending
+   * the directory as far as needed.
+   *
+   * @param index between 0 (inclusive) and the length (exclusive)
+   * @return the position of the chunk in {@code directory}
+   */
+  private int locate(int index) {
+    if (this.indexedChunks == 0) this.index(this.head, 0);
+
+    // Extend the directory until it covers the index.
+    while (true) {
+      int last = this.indexedChunks - 1;
+
+      if (this.starts[last] + this.directory[last].size > index) break;
+
+      this.index(this.directory[last].next, this.starts[last] + this.directory[last].size);
+    }
+
+    int low = 0;
+    int high = this.indexedChunks - 1;
+
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+
+      if (this.starts[middle] <= index) low = middle;
+      else high = middle - 1;
+    }
+
+    return low;
+  }
+
+  /** Appends a chunk to the up-to-date part of the directory. */
+  private void index(Chunk chunk, int start) {
+    if (this.indexedChunks == this.directory.length) {
+      this.directory = Arrays.copyOf(this.directory, this.directory.length * 2);
+      this.starts = Arrays.copyOf(this.starts, this.starts.length * 2);
+    }
+
+    this.directory[this.indexedChunks] = chunk;
+    this.starts[this.indexedChunks++] = start;
+  }
+
+  /** Marks the directory entries after the specified position as out of date. */
+  private void invalidateAfter(int position) {
+    int indexedChunks = Math.min(this.indexedChunks, position + 1);
+
+    // Drop references to chunks that may have been unlinked.
+    Arrays.fill(this.directory, indexedChunks, this.indexedChunks, null);
+    this.indexedChunks = indexedChunks;
+  }
+
+  public T get(int index) {
+    if (index < 0 || index >= this.length) throw new IndexOutOfBoundsException();
+
+    int position = this.locate(index);
+
+    return (T) this.directory[position].elements[index - this.starts[position]];
+  }
+
+  /**
+   * Inserts an element at the specified index.
+   *
+   * @param data
+   * @param index
+   * @return this list
+   */
+  public UnrolledLinkedList<T> insert(T data, int index) {
+    if (index < 0 || index > this.length) throw new IndexOutOfBoundsException();
+
+    if (this.head == null) {
+      this.head = new Chunk(this.chunkCapacity);
+      this.index(this.head, 0);
+    }
+
+    // Appending goes at the end of the last chunk.
+    int position = this.length == 0 ? 0 : this.locate(index == this.length ? index - 1 : index);
+    Chunk chunk = this.directory[position];
+    int offset = index - this.starts[position];
+
+    if (chunk.size == this.chunkCapacity) {
+      Chunk newChunk = new Chunk(this.chunkCapacity);
+      int half = this.chunkCapacity / 2;
+
+      System.arraycopy(chunk.elements, half, newChunk.elements, 0, chunk.size - half);
+      Arrays.fill(chunk.elements, half, chunk.size, null);
+
+      newChunk.size = chunk.size - half;
+      chunk.size = half;
+      newChunk.next = chunk.next;
+      chunk.next = newChunk;
+
+      if (offset > half) {
+        chunk = newChunk;
+        offset -= half;
+      }
+    }
+
+    System.arraycopy(chunk.elements, offset, chunk.elements, offset + 1, chunk.size - offset);
+    chunk.elements[offset] = data;
+    chunk.size++;
+
+    this.invalidateAfter(position);
+
+    this.length++;
+    return this;
+  }
+
+  public UnrolledLinkedList<T> insertAtHead(T data) {
+    return this.insert(data, 0);
+  }
+
+  /**
+   * Deletes the element at the specified index.
+   *
+   * @param index
+   * @return the deleted element
+   */
+  public T delete(int index) {
+    if (index < 0 || index >= this.length) throw new IndexOutOfBoundsException();
+
+    int position = this.locate(index);
+    Chunk chunk = this.directory[position];
+    int offset = index - this.starts[position];
+    T deletedData = (T) chunk.elements[offset];
+
+    System.arraycopy(chunk.elements, offset + 1, chunk.elements, offset, chunk.size - offset - 1);
+    chunk.elements[--chunk.size] = null;
+
+    Chunk next = chunk.next;
+
+    if (chunk.size < this.chunkCapacity / 2
+        && next != null
+        && chunk.size + next.size <= this.chunkCapacity) {
+      // Merge the next chunk into this one.
+      System.arraycopy(next.elements, 0, chunk.elements, chunk.size, next.size);
+      chunk.size += next.size;
+      chunk.next = next.next;
+    } else if (chunk.size == 0) {
+      // Only the last chunk can be left empty.
+      if (position == 0) this.head = null;
+      else this.directory[position - 1].next = null;
+
+      position--;
+    }
+
+    this.invalidateAfter(position);
+
+    this.length--;
+    return deletedData;
+  }
+
+  /**
+   * Deletes the first element.
+   *
+   * @return the deleted element, or {@code null} if the list is empty
+   */
+  public T deleteAtHead() {
+    if (this.length == 0) return null;
+
+    return this.delete(0);
+  }
+}
@@ -0,0 +1,697 @@
+import java.util.AbstractMap;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * An ordered map based on an in-memory B+-tree.
+ *
+ * <p>Every node holds up to {@code order} keys in a sorted array, so a lookup binary searches a
+ * handful of contiguous arrays instead of chasing one pointer per key as a binary search tree does.
+ * Only the leaves hold values, and each leaf links to the next one, so a range scan finds its first
+ * key once and then reads the leaves in order, array by array.
+ *
+ * <p>An inner node with k keys has k + 1 children: every key in child i is below key i, and every
+ * key in child i + 1 is equal to or above it. Every node but the root holds at least {@code order /
+ * 2} keys. A full node is split in half when a key is inserted into it, and a node that falls below
+ * half full borrows a key from a sibling or is merged with it.
+ *
+ * <p>Operations with their time complexities are:
+ *
+ * <ul>
+ *   <li><code>BPlusTree(DynamicArray, DynamicArray, int, Comparator)</code>: O(n)
+ *   <li><code>put(K, V)</code>: O(log n)
+ *   <li><code>remove(K)</code>: O(log n)
+ *   <li><code>get(K)</code>: O(log n)
+ *   <li><code>floorKey(K)</code>, <code>ceilingKey(K)</code>: O(log n)
+ *   <li><code>forEachInRange(K, K, BiConsumer)</code>: O(log n + k)
+ * </ul>
+ */
+@SuppressWarnings("unchecked")
+public class BPlusTree<K, V> implements Iterable<Map.Entry<K, V>> {
+  static class Node {
+    /** The keys of this node, with one spare slot for a key that is about to be split off. */
+    final Object[] keys;
+    int size;
+
+    Node(int order) {
+      this.keys = new Object[order + 1];
+    }
+  }
+
+  static class Leaf extends Node {
+    final Object[] values;
+    Leaf next; // The leaf with the next keys, or null if this is the last leaf
+
+    Leaf(int order) {
+      super(order);
+      this.values = new Object[order + 1];
+    }
+  }
+
+  static class Inner extends Node {
+    final Node[] children;
+
+    Inner(int order) {
+      super(order);
+      this.children = new Node[order + 2];
+    }
+  }
+
+  Node root;
+  int length; // The number of key-value pairs in this tree
+  int order; // The maximum number of keys per node
+  Comparator<? super K> comparator;
+  /** The separator key for the node returned by the last {@code insert} that split a node. */
+  Object splitKey;
+  /** The value removed by the last {@code delete}, or {@code null} if the key was not found. */
+  Object removedValue;
+
+  /**
+   * Initializes a new tree with up to 64 keys per node.
+   *
+   * @param comparator the order of the keys
+   */
+  public BPlusTree(Comparator<? super K> comparator) {
+    this(64, comparator);
+  }
+
+  /**
+   * Initializes a new tree.
+   *
+   * @param order the maximum number of keys per node
+   * @param comparator the order of the keys
+   * @throws IllegalArgumentException if the order is below 3.
+   */
+  public BPlusTree(int order, Comparator<? super K> comparator) {
+    if (order < 3) throw new IllegalArgumentException("Illegal order: " + order);
+
+    this.root = new Leaf(order);
+    this.length = 0;
+    this.order = order;
+    this.comparator = comparator;
+  }
+
+  /**
+   * Initializes a new tree holding the specified key-value pairs, built bottom-up in O(n).
+   *
+   * <p>The keys are spread evenly over as few leaves as possible, then each level of inner nodes
+   * is built over the one below, so the tree is as shallow and as full as it can be.
+   *
+   * @param keys the keys, in strictly increasing order
+   * @param values the values, at the same indices as their keys
+   * @param order the maximum number of keys per node
+   * @param comparator the order of the keys
+   * @throws IllegalArgumentException if the order is below 3, the arrays have different lengths, or
+   *     the keys are not in strictly increasing order.
+   */
+  public BPlusTree(
+      DynamicArray<? extends K> keys,
+      DynamicArray<? extends V> values,
+      int order,
+      Comparator<? super K> comparator) {
+    this(order, comparator);
+
+    int n = keys.getLength();
+
+    if (values.getLength() != n)
+      throw new IllegalArgumentException("Illegal values length: " + values.getLength());
+
+    for (int i = 1; i < n; i++)
+      if (comparator.compare(keys.get(i - 1), keys.get(i)) >= 0)
+        throw new IllegalArgumentException("Illegal key order at index: " + i);
+
+    if (n == 0) return;
+
+    // Build the leaves, remembering the smallest key under each node for the level above.
+    int count = (n + order - 1) / order;
+    Node[] level = new Node[count];
+    Object[] firstKeys = new Object[count];
+    Leaf previous = null;
+
+    for (int i = 0, from = 0; i < count; i++) {
+      Leaf leaf = new Leaf(order);
+      leaf.size = n / count + (i < n % count ? 1 : 0);
+
+      for (int j = 0; j < leaf.size; j++) {
+        leaf.keys[j] = keys.get(from + j);
+        leaf.values[j] = values.get(from + j);
+      }
+
+      if (previous != null) previous.next = leaf;
+
+      level[i] = previous = leaf;
+      firstKeys[i] = leaf.keys[0];
+      from += leaf.size;
+    }
+
+    while (level.length > 1) {
+      int children = level.length;
+      count = (children + order) / (order + 1);
+      Node[] parents = new Node[count];
+      Object[] parentFirstKeys = new Object[count];
+
+      for (int i = 0, from = 0; i < count; i++) {
+        Inner inner = new Inner(order);
+        int size = children / count + (i < children % count ? 1 : 0);
+
+        for (int j = 0; j < size; j++) {
+          inner.children[j] = level[from + j];
+          if (j > 0) inner.keys[j - 1] = firstKeys[from + j];
+        }
+
+        inner.size = size - 1;
+        parents[i] = inner;
+        parentFirstKeys[i] = firstKeys[from];
+        from += size;
+      }
+
+      level = parents;
+      firstKeys = parentFirstKeys;
+    }
+
+    this.root = level[0];
+    this.length = n;
+  }
+
+  public int getLength() {
+    return this.length;
+  }
+
+  public boolean isEmpty() {
+    return this.length == 0;
+  }
+
+  public int getOrder() {
+    return this.order;
+  }
+
+  public Comparator<? super K> getComparator() {
+    return this.comparator;
+  }
+
+  /**
+   * Binary searches the keys of a node.
+   *
+   * @return the index of the key if found, or {@code -(insertion point) - 1}, as {@link
+   *     java.util.Arrays#binarySearch(Object[], Object)} does
+   */
+  private int search(Node node, Object key) {
+    int low = 0;
+    int high = node.size - 1;
+
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = this.comparator.compare((K) node.keys[middle], (K) key);
+
+      if (comparison < 0) low = middle + 1;
+      else if (comparison > 0) high = middle - 1;
+      else return middle;
+    }
+
+    return -(low + 1);
+  }
+
+  /** Returns the index of the child of an inner node whose keys may include the specified key. */
+  private int childIndex(Inner inner, Object key) {
+    int index = this.search(inner, key);
+
+    return index >= 0 ? index + 1 : -(index + 1);
+  }
+
+  /** Returns the leaf whose keys may include the specified key. */
+  private Leaf findLeaf(Object key) {
+    Node node = this.root;
+
+    while (node instanceof Inner) {
+      Inner inner = (Inner) node;
+      node = inner.children[this.childIndex(inner, key)];
+    }
+
+    return (Leaf) node;
+  }
+
+  /**
+   * Returns the value of the specified key.
+   *
+   * @param key
+   * @return the value of the key, or {@code null} if the key is not in the tree
+   */
+  public V get(K key) {
+    Leaf leaf = this.findLeaf(key);
+    int index = this.search(leaf, key);
+
+    return index >= 0 ? (V) leaf.values[index] : null;
+  }
+
+  public boolean containsKey(K key) {
+    Leaf leaf = this.findLeaf(key);
+
+    return this.search(leaf, key) >= 0;
+  }
+
+  /**
+   * Puts a key-value pair into this tree, overriding the value if the key already exists.
+   *
+   * @param key
+   * @param value
+   */
+  public void put(K key, V value) {
+    Node right = this.insert(this.root, key, value);
+
+    // The root was split: grow the tree by one level.
+    if (right != null) {
+      Inner newRoot = new Inner(this.order);
+      newRoot.keys[0] = this.splitKey;
+      newRoot.children[0] = this.root;
+      newRoot.children[1] = right;
+      newRoot.size = 1;
+
+      this.root = newRoot;
+      this.splitKey = null;
+    }
+  }
+
+  /**
+   * Inserts a key-value pair into the subtree of the specified node.
+   *
+   * @return the new right sibling of the node if it was split, with its separator key in {@code
+   *     splitKey}, or {@code null}
+   */
+  private Node insert(Node node, K key, V value) {
+    if (node instanceof Leaf) {
+      Leaf leaf = (Leaf) node;
+      int index = this.search(leaf, key);
+
+      if (index >= 0) {
+        leaf.values[index] = value;
+        return null;
+      }
+
+      index = -(index + 1);
+      System.arraycopy(leaf.keys, index, leaf.keys, index + 1, leaf.size - index);
+      System.arraycopy(leaf.values, index, leaf.values, index + 1, leaf.size - index);
+      leaf.keys[index] = key;
+      leaf.values[index] = value;
+      leaf.size++;
+      this.length++;
+
+      return leaf.size > this.order ? this.split(leaf) : null;
+    }
+
+    Inner inner = (Inner) node;
+    int index = this.childIndex(inner, key);
+    Node right = this.insert(inner.children[index], key, value);
+
+    if (right == null) return null;
+
+    System.arraycopy(inner.keys, index, inner.keys, index + 1, inner.size - index);
+    System.arraycopy(inner.children, index + 1, inner.children, index + 2, inner.size - index);
+    inner.keys[index] = this.splitKey;
+    inner.children[index + 1] = right;
+    inner.size++;
+
+    return inner.size > this.order ? this.split(inner) : null;
+  }
+
+  /** Moves the upper half of an overfull leaf to a new leaf after it. */
+  private Leaf split(Leaf leaf) {
+    Leaf right = new Leaf(this.order);
+    int half = leaf.size / 2;
+
+    right.size = leaf.size - half;
+    System.arraycopy(leaf.keys, half, right.keys, 0, right.size);
+    System.arraycopy(leaf.values, half, right.values, 0, right.size);
+    clear(leaf, half, leaf.size);
+    leaf.size = half;
+
+    right.next = leaf.next;
+    leaf.next = right;
+
+    this.splitKey = right.keys[0];
+    return right;
+  }
+
+  /**
+   * Moves the upper half of an overfull inner node to a new node after it. The middle key moves up
+   * to the parent instead.
+   */
+  private Inner split(Inner inner) {
+    Inner right = new Inner(this.order);
+    int middle = inner.size / 2;
+
+    right.size = inner.size - middle - 1;
+    System.arraycopy(inner.keys, middle + 1, right.keys, 0, right.size);
+    System.arraycopy(inner.children, middle + 1, right.children, 0, right.size + 1);
+
+    this.splitKey = inner.keys[middle];
+    clear(inner, middle, inner.size);
+    inner.size = middle;
+
+    return right;
+  }
+
+  /**
+   * Drops the references held by the specified range of keys, and by the values or the children
+   * after them.
+   */
+  private static void clear(Node node, int from, int to) {
+    for (int i = from; i < to; i++) {
+      node.keys[i] = null;
+
+      if (node instanceof Leaf) ((Leaf) node).values[i] = null;
+      else ((Inner) node).children[i + 1] = null;
+    }
+  }
+
+  /**
+   * Removes a key-value pair from this tree, if it exists.
+   *
+   * @param key
+   * @return the value of the removed key, or {@code null} if the key was not in the tree
+   */
+  public V remove(K key) {
+    this.delete(this.root, key);
+
+    // The root lost its last key: shrink the tree by one level.
+    if (this.root instanceof Inner && this.root.size == 0)
+      this.root = ((Inner) this.root).children[0];
+
+    V removedValue = (V) this.removedValue;
+    this.removedValue = null;
+    return removedValue;
+  }
+
+  /**
+   * Deletes a key from the subtree of the specified node, leaving its value in {@code
+   * removedValue}.
+   */
+  private void delete(Node node, Object key) {
+    if (node instanceof Leaf) {
+      Leaf leaf = (Leaf) node;
+      int index = this.search(leaf, key);
+
+      if (index < 0) return;
+
+      this.removedValue = leaf.values[index];
+      System.arraycopy(leaf.keys, index + 1, leaf.keys, index, leaf.size - index - 1);
+      System.arraycopy(leaf.values, index + 1, leaf.values, index, leaf.size - index - 1);
+      clear(leaf, leaf.size - 1, leaf.size);
+      leaf.size--;
+      this.length--;
+      return;
+    }
+
+    Inner inner = (Inner) node;
+    int index = this.childIndex(inner, key);
+    Node child = inner.children[index];
+
+    this.delete(child, key);
+
+    if (child.size < this.order / 2) this.rebalance(inner, index);
+  }
+
+  /**
+   * Refills an underfull child by borrowing a key from a sibling that can spare one, or else merges
+   * it with a sibling.
+   */
+  private void rebalance(Inner parent, int index) {
+    Node left = index > 0 ? parent.children[index - 1] : null;
+    Node right = index < parent.size ? parent.children[index + 1] : null;
+
+    if (left != null && left.size > this.order / 2) this.borrowFromLeft(parent, index);
+    else if (right != null && right.size > this.order / 2) this.borrowFromRight(parent, index);
+    else if (left != null) this.merge(parent, index - 1);
+    else this.merge(parent, index);
+  }
+
+  private void borrowFromLeft(Inner parent, int index) {
+    Node child = parent.children[index];
+    Node left = parent.children[index - 1];
+
+    System.arraycopy(child.keys, 0, child.keys, 1, child.size);
+
+    if (child instanceof Leaf) {
+      Leaf leaf = (Leaf) child;
+      Leaf leftLeaf = (Leaf) left;
+
+      System.arraycopy(leaf.values, 0, leaf.values, 1, leaf.size);
+      leaf.keys[0] = leftLeaf.keys[leftLeaf.size - 1];
+      leaf.values[0] = leftLeaf.values[leftLeaf.size - 1];
+      parent.keys[index - 1] = leaf.keys[0];
+    } else {
+      Inner inner = (Inner) child;
+      Inner leftInner = (Inner) left;
+
+      // Rotate through the parent: its separator comes down, the left's last key goes up.
+      System.arraycopy(inner.children, 0, inner.children, 1, inner.size + 1);
+      inner.keys[0] = parent.keys[index - 1];
+      inner.children[0] = leftInner.children[leftInner.size];
+      parent.keys[index - 1] = leftInner.keys[leftInner.size - 1];
+    }
+
+    clear(left, left.size - 1, left.size);
+    left.size--;
+    child.size++;
+  }
+
+  private void borrowFromRight(Inner parent, int index) {
+    Node child = parent.children[index];
+    Node right = parent.children[index + 1];
+
+    if (child instanceof Leaf) {
+      Leaf leaf = (Leaf) child;
+      Leaf rightLeaf = (Leaf) right;
+
+      leaf.keys[leaf.size] = rightLeaf.keys[0];
+      leaf.values[leaf.size] = rightLeaf.values[0];
+      System.arraycopy(rightLeaf.values, 1, rightLeaf.values, 0, rightLeaf.size - 1);
+      System.arraycopy(rightLeaf.keys, 1, rightLeaf.keys, 0, rightLeaf.size - 1);
+      rightLeaf.keys[rightLeaf.size - 1] = null;
+      rightLeaf.values[rightLeaf.size - 1] = null;
+      parent.keys[index] = rightLeaf.keys[0];
+    } else {
+      Inner inner = (Inner) child;
+      Inner rightInner = (Inner) right;
+
+      // Rotate through the parent: its separator comes down, the right's first key goes up.
+      inner.keys[inner.size] = parent.keys[index];
+      inner.children[inner.size + 1] = rightInner.children[0];
+      parent.keys[index] = rightInner.keys[0];
+      System.arraycopy(rightInner.keys, 1, rightInner.keys, 0, rightInner.size - 1);
+      System.arraycopy(rightInner.children, 1, rightInner.children, 0, rightInner.size);
+      rightInner.keys[rightInner.size - 1] = null;
+      rightInner.children[rightInner.size] = null;
+    }
+
+    right.size--;
+    child.size++;
+  }
+
+  /** Merges the child after the specified separator into the child before it. */
+  private void merge(Inner parent, int separator) {
+    Node left = parent.children[separator];
+    Node right = parent.children[separator + 1];
+
+    if (left instanceof Leaf) {
+      Leaf leftLeaf = (Leaf) left;
+      Leaf rightLeaf = (Leaf) right;
+
+      System.arraycopy(rightLeaf.keys, 0, leftLeaf.keys, leftLeaf.size, rightLeaf.size);
+      System.arraycopy(rightLeaf.values, 0, leftLeaf.values, leftLeaf.size, rightLeaf.size);
+      leftLeaf.size += rightLeaf.size;
+      leftLeaf.next = rightLeaf.next;
+    } else {
+      Inner leftInner = (Inner) left;
+      Inner rightInner = (Inner) right;
+
+      // The separator comes down between the two nodes' keys.
+      leftInner.keys[leftInner.size] = parent.keys[separator];
+      System.arraycopy(rightInner.keys, 0, leftInner.keys, leftInner.size + 1, rightInner.size);
+      System.arraycopy(
+          rightInner.children, 0, leftInner.children, leftInner.size + 1, rightInner.size + 1);
+      leftInner.size += rightInner.size + 1;
+    }
+
+    System.arraycopy(
+        parent.keys, separator + 1, parent.keys, separator, parent.size - separator - 1);
+    System.arraycopy(
+        parent.children,
+        separator + 2,
+        parent.children,
+        separator + 1,
+        parent.size - separator - 1);
+    clear(parent, parent.size - 1, parent.size);
+    parent.size--;
+  }
+
+  /**
+   * Returns the lowest key in this tree.
+   *
+   * @return the lowest key, or {@code null} if the tree is empty
+   */
+  public K firstKey() {
+    Node node = this.root;
+
+    while (node instanceof Inner) node = ((Inner) node).children[0];
+
+    return (K) node.keys[0];
+  }
+
+  /**
+   * Returns the highest key in this tree.
+   *
+   * @return the highest key, or {@code null} if the tree is empty
+   */
+  public K lastKey() {
+    return this.length == 0 ? null : this.lastKey(this.root);
+  }
+
+  private K lastKey(Node node) {
+    while (node instanceof Inner) node = ((Inner) node).children[node.size];
+
+    return (K) node.keys[node.size - 1];
+  }
+
+  /**
+   * Returns the highest key equal to or below the specified key.
+   *
+   * @param key
+   * @return the floor of the key, or {@code null} if every key is above it
+   */
+  public K floorKey(K key) {
+    Node node = this.root;
+    Node before = null; // The subtree just before the path taken, if any
+
+    while (node instanceof Inner) {
+      Inner inner = (Inner) node;
+      int index = this.childIndex(inner, key);
+
+      if (index > 0) before = inner.children[index - 1];
+
+      node = inner.children[index];
+    }
+
+    int index = this.search(node, key);
+
+    if (index >= 0) return (K) node.keys[index];
+
+    index = -(index + 1);
+
+    // Every key of the leaf is above the key: the floor is the last key before the leaf.
+    if (index == 0) return before == null ? null : this.lastKey(before);
+
+    return (K) node.keys[index - 1];
+  }
+
+  /**
+   * Returns the lowest key equal to or above the specified key.
+   *
+   * @param key
+   * @return the ceiling of the key, or {@code null} if every key is below it
+   */
+  public K ceilingKey(K key) {
+    Leaf leaf = this.findLeaf(key);
+    int index = this.search(leaf, key);
+
+    if (index < 0) index = -(index + 1);
+
+    if (index < leaf.size) return (K) leaf.keys[index];
+
+    // Every key of the leaf is below the key: the ceiling is the first key of the next leaf.
+    return leaf.next == null ? null : (K) leaf.next.keys[0];
+  }
+
+  /**
+   * Calls an action on every key-value pair of this tree, in key order.
+   *
+   * @param action
+   */
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    this.forEachInRange(null, null, action);
+  }
+
+  /**
+   * Calls an action on the key-value pairs with keys between the specified bounds, in key order.
+   *
+   * <p>The first key is found in O(log n), then the leaves are read in order without going back up
+   * the tree and without allocating.
+   *
+   * @param from the lowest key (inclusive), or {@code null} to start at the first key
+   * @param to the highest key (exclusive), or {@code null} to run to the last key
+   * @param action
+   */
+  public void forEachInRange(K from, K to, BiConsumer<? super K, ? super V> action) {
+    Leaf leaf = from == null ? this.firstLeaf() : this.findLeaf(from);
+    int index = from == null ? 0 : this.search(leaf, from);
+
+    if (index < 0) index = -(index + 1);
+
+    for (; leaf != null; leaf = leaf.next, index = 0) {
+      for (; index < leaf.size; index++) {
+        K key = (K) leaf.keys[index];
+
+        if (to != null && this.comparator.compare(key, to) >= 0) return;
+
+        action.accept(key, (V) leaf.values[index]);
+      }
+    }
+  }
+
+  private Leaf firstLeaf() {
+    Node node = this.root;
+
+    while (node instanceof Inner) node = ((Inner) node).children[0];
+
+    return (Leaf) node;
+  }
+
+  /**
+   * Returns an iterator over the key-value pairs of this tree, in key order.
+   *
+   * @return an iterator over every key-value pair
+   */
+  public Iterator<Map.Entry<K, V>> iterator() {
+    return this.iterator(null, null);
+  }
+
+  /**
+   * Returns an iterator over the key-value pairs with keys between the specified bounds, in key
+   * order. The tree must not be modified while iterating.
+   *
+   * @param from the lowest key (inclusive), or {@code null} to start at the first key
+   * @param to the highest key (exclusive), or {@code null} to run to the last key
+   * @return an iterator over the key-value pairs in the range
+   */
+  public Iterator<Map.Entry<K, V>> iterator(K from, K to) {
+    Leaf first = from == null ? this.firstLeaf() : this.findLeaf(from);
+    int firstIndex = from == null ? 0 : this.search(first, from);
+
+    return new Iterator<Map.Entry<K, V>>() {
+      Leaf leaf = first;
+      int index = firstIndex < 0 ? -(firstIndex + 1) : firstIndex;
+
+      public boolean hasNext() {
+        // Move past the end of the leaf to the next one.
+        if (this.leaf != null && this.index == this.leaf.size) {
+          this.leaf = this.leaf.next;
+          this.index = 0;
+        }
+
+        if (this.leaf == null) return false;
+
+        return to == null || comparator.compare((K) this.leaf.keys[this.index], to) < 0;
+      }
+
+      public Map.Entry<K, V> next() {
+        if (!this.hasNext()) throw new NoSuchElementException();
+
+        int index = this.index++;
+        return new AbstractMap.SimpleImmutableEntry<K, V>(
+            (K) this.leaf.keys[index], (V) this.leaf.values[index]);
+      }
+    };
+  }
+}
@@ -0,0 +1,171 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A priority queue based on an implicit d-ary min-heap stored in an array that doubles when full.
+ *
+ * <p>The children of the element at index i are at indices {@code d * i + 1} to {@code d * i + d},
+ * and its parent is at index {@code (i - 1) / d}. The element that compares lowest is always at
+ * index 0. A higher arity makes the heap shallower, so {@code enqueue} does fewer comparisons, at
+ * the cost of comparing more children per level in {@code dequeue}. An arity of 4 keeps the
+ * children of a node close together in memory and usually beats a binary heap.
+ *
+ * <p>Sifting moves a hole up or down the heap instead of swapping, so every level costs a single
+ * array write.
+ *
+ * <p>Operations with their time complexities are:
+ *
+ * <ul>
+ *   <li><code>DaryHeap(DynamicArray, int, Comparator)</code>: O(n)
+ *   <li><code>enqueue(T)</code>: O(log n) (amortized)
+ *   <li><code>dequeue()</code>: O(d log n)
+ *   <li><code>peek()</code>: O(1)
+ * </ul>
+ */
+@SuppressWarnings("unchecked")
+public class DaryHeap<T> implements Queue<T> {
+  Object[] array; // The underlying array, in heap order, grown by enqueue
+  int length; // The number of elements in this heap
+  int arity; // The number of children per node
+  Comparator<? super T> comparator;
+
+  /**
+   * Initializes a new 4-ary heap.
+   *
+   * @param comparator the order of the elements, lowest first
+   */
+  public DaryHeap(Comparator<? super T> comparator) {
+    this(4, comparator);
+  }
+
+  /**
+   * Initializes a new heap.
+   *
+   * @param arity the number of children per node
+   * @param comparator the order of the elements, lowest first
+   * @throws IllegalArgumentException if the arity is below 2.
+   */
+  public DaryHeap(int arity, Comparator<? super T> comparator) {
+    if (arity < 2) throw new IllegalArgumentException("Illegal arity: " + arity);
+
+    this.array = new Object[10];
+    this.length = 0;
+    this.arity = arity;
+    this.comparator = comparator;
+  }
+
+  /**
+   * Initializes a new heap holding the elements of the specified array, built bottom-up in O(n)
+   * instead of enqueuing the elements one by one in O(n log n).
+   *
+   * @param source the elements of the heap; the array itself is left unchanged
+   * @param arity the number of children per node
+   * @param comparator the order of the elements, lowest first
+   * @throws IllegalArgumentException if the arity is below 2.
+   */
+  public DaryHeap(DynamicArray<? extends T> source, int arity, Comparator<? super T> comparator) {
+    this(arity, comparator);
+
+    this.array = new Object[Math.max(source.getLength(), 1)];
+    for (int i = 0; i < source.getLength(); i++) this.array[i] = source.get(i);
+    this.length = source.getLength();
+
+    // Sift down every parent, from the last one up to the root.
+    for (int index = (this.length - 2) / arity; index >= 0; index--)
+      this.siftDown(this.array[index], index);
+  }
+
+  public int getLength() {
+    return this.length;
+  }
+
+  public int getCapacity() {
+    return this.array.length;
+  }
+
+  public boolean isEmpty() {
+    return this.length == 0;
+  }
+
+  public int getArity() {
+    return this.arity;
+  }
+
+  public Comparator<? super T> getComparator() {
+    return this.comparator;
+  }
+
+  private int compare(Object a, Object b) {
+    return this.comparator.compare((T) a, (T) b);
+  }
+
+  /** Moves the hole at the specified index up until the data can be put in it. */
+  private void siftUp(Object data, int index) {
+    while (index > 0) {
+      int parent = (index - 1) / this.arity;
+
+      if (this.compare(data, this.array[parent]) >= 0) break;
+
+      this.array[index] = this.array[parent];
+      index = parent;
+    }
+
+    this.array[index] = data;
+  }
+
+  /** Moves the hole at the specified index down until the data can be put in it. */
+  private void siftDown(Object data, int index) {
+    while (true) {
+      int firstChild = index * this.arity + 1;
+
+      if (firstChild >= this.length) break;
+
+      int lastChild = Math.min(firstChild + this.arity, this.length);
+      int lowestChild = firstChild;
+
+      for (int child = firstChild + 1; child < lastChild; child++)
+        if (this.compare(this.array[child], this.array[lowestChild]) < 0) lowestChild = child;
+
+      if (this.compare(this.array[lowestChild], data) >= 0) break;
+
+      this.array[index] = this.array[lowestChild];
+      index = lowestChild;
+    }
+
+    this.array[index] = data;
+  }
+
+  public T enqueue(T data) {
+    if (this.length == this.array.length)
+      this.array = Arrays.copyOf(this.array, Math.max(this.array.length * 2, 1));
+
+    this.siftUp(data, this.length++);
+    return data;
+  }
+
+  /**
+   * Removes the lowest element.
+   *
+   * @return the lowest element, or {@code null} if the heap is empty
+   */
+  public T dequeue() {
+    if (this.length == 0) return null;
+
+    T dequeuedData = (T) this.array[0];
+    Object last = this.array[--this.length];
+    this.array[this.length] = null;
+
+    if (this.length > 0) this.siftDown(last, 0);
+
+    return dequeuedData;
+  }
+
+  /**
+   * Returns the lowest element without removing it.
+   *
+   * @return the lowest element, or {@code null} if the heap is empty
+   */
+  public T peek() {
+    return (T) this.array[0];
+  }
+}
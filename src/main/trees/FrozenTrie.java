@@ -0,0 +1,233 @@
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable radix tree, packed into flat arrays for read-mostly dictionaries.
+ *
+ * <p>The nodes of a {@link Trie} are numbered in breadth-first order, so the children of every node
+ * have consecutive numbers and a node is just an index into a handful of arrays: the labels of all
+ * nodes are concatenated in one {@code char[]}, and each node stores the offset of its label, the
+ * number of its first child, the first character of its label, and its value. Looking up a key
+ * touches these arrays instead of a graph of objects, and the whole dictionary is a few large
+ * allocations that the garbage collector scans cheaply.
+ *
+ * <p>Operations have the same complexities as in {@link Trie}.
+ */
+@SuppressWarnings("unchecked")
+public class FrozenTrie<V> {
+  /** The labels of all nodes, concatenated in node order. */
+  final char[] labels;
+  /** The offset of the label of each node in {@code labels}, plus the total length at the end. */
+  final int[] labelOffsets;
+  /** The number of the first child of each node, plus the number of nodes at the end. */
+  final int[] firstChildren;
+  /** The first character of the label of each node, or 0 for the root. */
+  final char[] firstChars;
+  final Object[] values;
+  /** Whether a key ends at each node, since values may be {@code null}. */
+  final boolean[] hasValues;
+  final int length; // The number of keys in this trie
+
+  /**
+   * Packs the nodes of the specified trie.
+   *
+   * @param trie
+   */
+  FrozenTrie(Trie<V> trie) {
+    int nodeCount = count(trie.root);
+    Trie.Node[] nodes = new Trie.Node[nodeCount];
+    int labelLength = 0;
+
+    this.firstChildren = new int[nodeCount + 1];
+    nodes[0] = trie.root;
+
+    // Number the nodes breadth-first: the children of a node are queued one after another.
+    for (int node = 0, tail = 1; node < nodeCount; node++) {
+      this.firstChildren[node] = tail;
+      labelLength += nodes[node].label.length;
+
+      for (int i = 0; i < nodes[node].size; i++) nodes[tail++] = nodes[node].children[i];
+    }
+
+    this.firstChildren[nodeCount] = nodeCount;
+    this.labels = new char[labelLength];
+    this.labelOffsets = new int[nodeCount + 1];
+    this.firstChars = new char[nodeCount];
+    this.values = new Object[nodeCount];
+    this.hasValues = new boolean[nodeCount];
+
+    for (int node = 0, offset = 0; node < nodeCount; node++) {
+      char[] label = nodes[node].label;
+
+      System.arraycopy(label, 0, this.labels, offset, label.length);
+      this.labelOffsets[node] = offset;
+      this.firstChars[node] = label.length == 0 ? 0 : label[0];
+      this.values[node] = nodes[node].value;
+      this.hasValues[node] = nodes[node].hasValue;
+      offset += label.length;
+    }
+
+    this.labelOffsets[nodeCount] = labelLength;
+    this.length = trie.length;
+  }
+
+  private static int count(Trie.Node node) {
+    int count = 1;
+
+    for (int i = 0; i < node.size; i++) count += count(node.children[i]);
+
+    return count;
+  }
+
+  public int getLength() {
+    return this.length;
+  }
+
+  public boolean isEmpty() {
+    return this.length == 0;
+  }
+
+  public int getNodeCount() {
+    return this.values.length;
+  }
+
+  /**
+   * Returns the child of a node whose label starts with the specified character.
+   *
+   * @return the number of the child, or -1 if there is none
+   */
+  private int child(int node, char c) {
+    int from = this.firstChildren[node];
+    int to = this.firstChildren[node + 1];
+    int index = Arrays.binarySearch(this.firstChars, from, to, c);
+
+    return index < 0 ? -1 : index;
+  }
+
+  /**
+   * Returns the number of leading characters of the label of a node that match the key starting at
+   * the specified offset.
+   */
+  private int match(int node, String key, int offset) {
+    int labelOffset = this.labelOffsets[node];
+    int limit = Math.min(this.labelOffsets[node + 1] - labelOffset, key.length() - offset);
+    int matched = 0;
+
+    while (matched < limit && this.labels[labelOffset + matched] == key.charAt(offset + matched))
+      matched++;
+
+    return matched;
+  }
+
+  private int labelLength(int node) {
+    return this.labelOffsets[node + 1] - this.labelOffsets[node];
+  }
+
+  /**
+   * Returns the node where the specified key ends.
+   *
+   * @return the number of the node, or -1 if no key in this trie starts with it
+   */
+  private int find(String key) {
+    int node = 0;
+    int offset = 0;
+
+    while (offset < key.length()) {
+      node = this.child(node, key.charAt(offset));
+
+      if (node == -1 || this.match(node, key, offset) != this.labelLength(node)) return -1;
+
+      offset += this.labelLength(node);
+    }
+
+    return node;
+  }
+
+  /**
+   * Returns the value of the specified key.
+   *
+   * @param key
+   * @return the value of the key, or {@code null} if the key is not in the trie
+   */
+  public V get(String key) {
+    int node = this.find(key);
+
+    return node == -1 ? null : (V) this.values[node];
+  }
+
+  public boolean containsKey(String key) {
+    int node = this.find(key);
+
+    return node != -1 && this.hasValues[node];
+  }
+
+  /**
+   * Returns the longest key in this trie that is a prefix of the specified text.
+   *
+   * @param text
+   * @return the longest key that the text starts with, or {@code null} if there is none
+   * @see Trie#longestPrefixMatch(String)
+   */
+  public String longestPrefixMatch(String text) {
+    int node = 0;
+    int offset = 0;
+    int longest = this.hasValues[0] ? 0 : -1;
+
+    while (offset < text.length()) {
+      node = this.child(node, text.charAt(offset));
+
+      if (node == -1 || this.match(node, text, offset) != this.labelLength(node)) break;
+
+      offset += this.labelLength(node);
+
+      if (this.hasValues[node]) longest = offset;
+    }
+
+    return longest == -1 ? null : text.substring(0, longest);
+  }
+
+  /**
+   * Calls an action on every key-value pair whose key starts with the specified prefix, in
+   * lexicographic order of the keys.
+   *
+   * @param prefix
+   * @param action
+   * @see Trie#prefixScan(String, BiConsumer)
+   */
+  public void prefixScan(String prefix, BiConsumer<? super String, ? super V> action) {
+    int node = 0;
+    int offset = 0;
+
+    while (offset < prefix.length()) {
+      node = this.child(node, prefix.charAt(offset));
+
+      if (node == -1) return;
+
+      int matched = this.match(node, prefix, offset);
+
+      // The prefix must either cover the whole label, or end partway through it.
+      if (matched != this.labelLength(node) && offset + matched != prefix.length()) return;
+
+      offset += this.labelLength(node);
+    }
+
+    // The key of the node starts with the prefix, and may go past it if it ended within a label.
+    int overshoot = offset - prefix.length();
+    StringBuilder key = new StringBuilder(prefix);
+    key.append(this.labels, this.labelOffsets[node + 1] - overshoot, overshoot);
+
+    this.scan(node, key, action);
+  }
+
+  private void scan(int node, StringBuilder key, BiConsumer<? super String, ? super V> action) {
+    if (this.hasValues[node]) action.accept(key.toString(), (V) this.values[node]);
+
+    for (int child = this.firstChildren[node]; child < this.firstChildren[node + 1]; child++) {
+      int keyLength = key.length();
+
+      key.append(this.labels, this.labelOffsets[child], this.labelLength(child));
+      this.scan(child, key, action);
+      key.setLength(keyLength);
+    }
+  }
+}
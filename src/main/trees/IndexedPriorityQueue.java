@@ -0,0 +1,261 @@
+import java.util.Comparator;
+
+/**
+ * A priority queue of the integers 0 to {@code capacity - 1}, each with a priority that can be
+ * changed while it is in the queue, based on an implicit d-ary min-heap.
+ *
+ * <p>The heap holds indices, and a second array maps every index to its position in the heap, so
+ * an index can be found, reprioritized, or removed in O(log n) without searching. This is what
+ * Dijkstra's and Prim's algorithms need to lower the distance of a vertex that is already queued.
+ *
+ * <p>Operations with their time complexities are:
+ *
+ * <ul>
+ *   <li><code>put(int, T)</code>: O(log n) to insert or lower, O(d log n) to raise
+ *   <li><code>decreaseKey(int, T)</code>: O(log n)
+ *   <li><code>remove(int)</code>: O(d log n)
+ *   <li><code>dequeue()</code>: O(d log n)
+ *   <li><code>peek()</code>: O(1)
+ *   <li><code>contains(int)</code>: O(1)
+ * </ul>
+ *
+ * @see LongIndexedPriorityQueue
+ */
+@SuppressWarnings("unchecked")
+public class IndexedPriorityQueue<T> {
+  int[] heap; // The indices, in heap order
+  int[] positions; // The position of each index in the heap, or -1 if it is not queued
+  Object[] priorities; // The priority of each index, or null if it is not queued
+  int length; // The number of indices in this queue
+  int arity; // The number of children per node
+  Comparator<? super T> comparator;
+
+  /**
+   * Initializes a new queue based on a 4-ary heap.
+   *
+   * @param capacity the number of indices, which range from 0 to {@code capacity - 1}
+   * @param comparator the order of the priorities, lowest first
+   */
+  public IndexedPriorityQueue(int capacity, Comparator<? super T> comparator) {
+    this(capacity, 4, comparator);
+  }
+
+  /**
+   * Initializes a new queue.
+   *
+   * @param capacity the number of indices, which range from 0 to {@code capacity - 1}
+   * @param arity the number of children per node
+   * @param comparator the order of the priorities, lowest first
+   * @throws IllegalArgumentException if the arity is below 2.
+   */
+  public IndexedPriorityQueue(int capacity, int arity, Comparator<? super T> comparator) {
+    if (arity < 2) throw new IllegalArgumentException("Illegal arity: " + arity);
+
+    this.heap = new int[capacity];
+    this.positions = new int[capacity];
+    this.priorities = new Object[capacity];
+    this.length = 0;
+    this.arity = arity;
+    this.comparator = comparator;
+
+    for (int index = 0; index < capacity; index++) this.positions[index] = -1;
+  }
+
+  public int getLength() {
+    return this.length;
+  }
+
+  public int getCapacity() {
+    return this.positions.length;
+  }
+
+  public boolean isEmpty() {
+    return this.length == 0;
+  }
+
+  public int getArity() {
+    return this.arity;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= this.positions.length) throw new IndexOutOfBoundsException();
+  }
+
+  private boolean less(int a, int b) {
+    return this.comparator.compare((T) this.priorities[a], (T) this.priorities[b]) < 0;
+  }
+
+  /** Moves the index up from the specified position until it is not lower than its parent. */
+  private void siftUp(int index, int position) {
+    while (position > 0) {
+      int parent = (position - 1) / this.arity;
+
+      if (!this.less(index, this.heap[parent])) break;
+
+      this.heap[position] = this.heap[parent];
+      this.positions[this.heap[position]] = position;
+      position = parent;
+    }
+
+    this.heap[position] = index;
+    this.positions[index] = position;
+  }
+
+  /** Moves the index down from the specified position until it is not higher than its children. */
+  private void siftDown(int index, int position) {
+    while (true) {
+      int firstChild = position * this.arity + 1;
+
+      if (firstChild >= this.length) break;
+
+      int lastChild = Math.min(firstChild + this.arity, this.length);
+      int lowestChild = firstChild;
+
+      for (int child = firstChild + 1; child < lastChild; child++)
+        if (this.less(this.heap[child], this.heap[lowestChild])) lowestChild = child;
+
+      if (!this.less(this.heap[lowestChild], index)) break;
+
+      this.heap[position] = this.heap[lowestChild];
+      this.positions[this.heap[position]] = position;
+      position = lowestChild;
+    }
+
+    this.heap[position] = index;
+    this.positions[index] = position;
+  }
+
+  /**
+   * Returns whether the specified index is in this queue.
+   *
+   * @param index
+   * @return {@code true} if the index is queued
+   * @throws IndexOutOfBoundsException if the index is not between 0 and the capacity.
+   */
+  public boolean contains(int index) {
+    this.checkIndex(index);
+
+    return this.positions[index] != -1;
+  }
+
+  /**
+   * Returns the priority of the specified index.
+   *
+   * @param index
+   * @return the priority of the index, or {@code null} if it is not queued
+   * @throws IndexOutOfBoundsException if the index is not between 0 and the capacity.
+   */
+  public T getPriority(int index) {
+    this.checkIndex(index);
+
+    return (T) this.priorities[index];
+  }
+
+  /**
+   * Adds an index with the specified priority, or changes its priority if it is already queued.
+   *
+   * @param index
+   * @param priority
+   * @throws IndexOutOfBoundsException if the index is not between 0 and the capacity.
+   */
+  public void put(int index, T priority) {
+    this.checkIndex(index);
+
+    if (this.positions[index] == -1) {
+      this.priorities[index] = priority;
+      this.siftUp(index, this.length++);
+      return;
+    }
+
+    int comparison = this.comparator.compare(priority, (T) this.priorities[index]);
+    this.priorities[index] = priority;
+
+    if (comparison < 0) this.siftUp(index, this.positions[index]);
+    else if (comparison > 0) this.siftDown(index, this.positions[index]);
+  }
+
+  /**
+   * Lowers the priority of a queued index, leaving it unchanged if the specified priority is not
+   * lower.
+   *
+   * @param index
+   * @param priority
+   * @return {@code true} if the index was queued with a higher priority
+   * @throws IndexOutOfBoundsException if the index is not between 0 and the capacity.
+   */
+  public boolean decreaseKey(int index, T priority) {
+    this.checkIndex(index);
+
+    if (this.positions[index] == -1
+        || this.comparator.compare(priority, (T) this.priorities[index]) >= 0) return false;
+
+    this.priorities[index] = priority;
+    this.siftUp(index, this.positions[index]);
+    return true;
+  }
+
+  /**
+   * Removes an index from this queue, if it is queued.
+   *
+   * @param index
+   * @return {@code true} if the index was queued
+   * @throws IndexOutOfBoundsException if the index is not between 0 and the capacity.
+   */
+  public boolean remove(int index) {
+    this.checkIndex(index);
+
+    int position = this.positions[index];
+
+    if (position == -1) return false;
+
+    this.positions[index] = -1;
+    this.priorities[index] = null;
+
+    int last = this.heap[--this.length];
+
+    // Fill the hole with the last index, which may belong above or below it.
+    if (last != index) {
+      this.siftUp(last, position);
+      if (this.positions[last] == position) this.siftDown(last, position);
+    }
+
+    return true;
+  }
+
+  /**
+   * Removes the index with the lowest priority.
+   *
+   * @return the index with the lowest priority, or -1 if the queue is empty
+   */
+  public int dequeue() {
+    if (this.length == 0) return -1;
+
+    int index = this.heap[0];
+    this.positions[index] = -1;
+    this.priorities[index] = null;
+
+    int last = this.heap[--this.length];
+    if (this.length > 0) this.siftDown(last, 0);
+
+    return index;
+  }
+
+  /**
+   * Returns the index with the lowest priority without removing it.
+   *
+   * @return the index with the lowest priority, or -1 if the queue is empty
+   */
+  public int peek() {
+    return this.length == 0 ? -1 : this.heap[0];
+  }
+
+  /**
+   * Returns the lowest priority in this queue.
+   *
+   * @return the priority of the index that {@code dequeue} returns next, or {@code null} if the
+   *     queue is empty
+   */
+  public T peekPriority() {
+    return this.length == 0 ? null : (T) this.priorities[this.heap[0]];
+  }
+}
@@ -0,0 +1,160 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A priority queue of elements with primitive {@code long} priorities, based on an implicit d-ary
+ * min-heap.
+ *
+ * <p>The same as {@link DaryHeap}, but priorities are kept in a {@code long[]} next to the
+ * elements and compared directly, so they are never boxed and no comparator is called.
+ *
+ * <p>Operations with their time complexities are:
+ *
+ * <ul>
+ *   <li><code>enqueue(long, T)</code>: O(log n) (amortized)
+ *   <li><code>dequeue()</code>: O(d log n)
+ *   <li><code>peek()</code>: O(1)
+ *   <li><code>peekPriority()</code>: O(1)
+ * </ul>
+ */
+@SuppressWarnings("unchecked")
+public class LongDaryHeap<T> {
+  long[] priorities; // The priorities, in heap order
+  Object[] elements; // The elements, at the same indices as their priorities
+  int length; // The number of elements in this heap
+  int arity; // The number of children per node
+
+  /** Initializes a new 4-ary heap. */
+  public LongDaryHeap() {
+    this(4);
+  }
+
+  /**
+   * Initializes a new heap.
+   *
+   * @param arity the number of children per node
+   * @throws IllegalArgumentException if the arity is below 2.
+   */
+  public LongDaryHeap(int arity) {
+    if (arity < 2) throw new IllegalArgumentException("Illegal arity: " + arity);
+
+    this.priorities = new long[10];
+    this.elements = new Object[10];
+    this.length = 0;
+    this.arity = arity;
+  }
+
+  public int getLength() {
+    return this.length;
+  }
+
+  public int getCapacity() {
+    return this.priorities.length;
+  }
+
+  public boolean isEmpty() {
+    return this.length == 0;
+  }
+
+  public int getArity() {
+    return this.arity;
+  }
+
+  /** Moves the hole at the specified index up until the pair can be put in it. */
+  private void siftUp(long priority, Object data, int index) {
+    while (index > 0) {
+      int parent = (index - 1) / this.arity;
+
+      if (priority >= this.priorities[parent]) break;
+
+      this.priorities[index] = this.priorities[parent];
+      this.elements[index] = this.elements[parent];
+      index = parent;
+    }
+
+    this.priorities[index] = priority;
+    this.elements[index] = data;
+  }
+
+  /** Moves the hole at the specified index down until the pair can be put in it. */
+  private void siftDown(long priority, Object data, int index) {
+    while (true) {
+      int firstChild = index * this.arity + 1;
+
+      if (firstChild >= this.length) break;
+
+      int lastChild = Math.min(firstChild + this.arity, this.length);
+      int lowestChild = firstChild;
+
+      for (int child = firstChild + 1; child < lastChild; child++)
+        if (this.priorities[child] < this.priorities[lowestChild]) lowestChild = child;
+
+      if (this.priorities[lowestChild] >= priority) break;
+
+      this.priorities[index] = this.priorities[lowestChild];
+      this.elements[index] = this.elements[lowestChild];
+      index = lowestChild;
+    }
+
+    this.priorities[index] = priority;
+    this.elements[index] = data;
+  }
+
+  /**
+   * Adds an element with the specified priority.
+   *
+   * @param priority
+   * @param data
+   * @return the added element
+   */
+  public T enqueue(long priority, T data) {
+    if (this.length == this.priorities.length) {
+      int newCapacity = Math.max(this.priorities.length * 2, 1);
+
+      this.priorities = Arrays.copyOf(this.priorities, newCapacity);
+      this.elements = Arrays.copyOf(this.elements, newCapacity);
+    }
+
+    this.siftUp(priority, data, this.length++);
+    return data;
+  }
+
+  /**
+   * Removes the element with the lowest priority.
+   *
+   * @return the element with the lowest priority, or {@code null} if the heap is empty
+   */
+  public T dequeue() {
+    if (this.length == 0) return null;
+
+    T dequeuedData = (T) this.elements[0];
+    long lastPriority = this.priorities[--this.length];
+    Object last = this.elements[this.length];
+    this.elements[this.length] = null;
+
+    if (this.length > 0) this.siftDown(lastPriority, last, 0);
+
+    return dequeuedData;
+  }
+
+  /**
+   * Returns the element with the lowest priority without removing it.
+   *
+   * @return the element with the lowest priority, or {@code null} if the heap is empty
+   */
+  public T peek() {
+    return (T) this.elements[0];
+  }
+
+  /**
+   * Returns the lowest priority in this heap.
+   *
+   * @return the priority of the element that {@code dequeue} returns next
+   * @throws NoSuchElementException if the heap is empty.
+   */
+  public long peekPriority() {
+    if (this.length == 0) throw new NoSuchElementException();
+
+    return this.priorities[0];
+  }
+}
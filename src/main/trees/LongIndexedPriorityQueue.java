@@ -0,0 +1,259 @@
+import java.util.NoSuchElementException;
+
+/**
+ * A priority queue of the integers 0 to {@code capacity - 1}, each with a primitive {@code long}
+ * priority that can be changed while it is in the queue, based on an implicit d-ary min-heap.
+ *
+ * <p>The same as {@link IndexedPriorityQueue}, but priorities are kept in a {@code long[]} and
+ * compared directly, so they are never boxed and no comparator is called.
+ *
+ * <p>The heap holds indices, and a second array maps every index to its position in the heap, so
+ * an index can be found, reprioritized, or removed in O(log n) without searching. This is what
+ * Dijkstra's and Prim's algorithms need to lower the distance of a vertex that is already queued.
+ *
+ * <p>Operations with their time complexities are:
+ *
+ * <ul>
+ *   <li><code>put(int, long)</code>: O(log n) to insert or lower, O(d log n) to raise
+ *   <li><code>decreaseKey(int, long)</code>: O(log n)
+ *   <li><code>remove(int)</code>: O(d log n)
+ *   <li><code>dequeue()</code>: O(d log n)
+ *   <li><code>peek()</code>: O(1)
+ *   <li><code>contains(int)</code>: O(1)
+ * </ul>
+ */
+public class LongIndexedPriorityQueue {
+  int[] heap; // The indices, in heap order
+  int[] positions; // The position of each index in the heap, or -1 if it is not queued
+  long[] priorities; // The priority of each index, if it is queued
+  int length; // The number of indices in this queue
+  int arity; // The number of children per node
+
+  /**
+   * Initializes a new queue based on a 4-ary heap.
+   *
+   * @param capacity the number of indices, which range from 0 to {@code capacity - 1}
+   */
+  public LongIndexedPriorityQueue(int capacity) {
+    this(capacity, 4);
+  }
+
+  /**
+   * Initializes a new queue.
+   *
+   * @param capacity the number of indices, which range from 0 to {@code capacity - 1}
+   * @param arity the number of children per node
+   * @throws IllegalArgumentException if the arity is below 2.
+   */
+  public LongIndexedPriorityQueue(int capacity, int arity) {
+    if (arity < 2) throw new IllegalArgumentException("Illegal arity: " + arity);
+
+    this.heap = new int[capacity];
+    this.positions = new int[capacity];
+    this.priorities = new long[capacity];
+    this.length = 0;
+    this.arity = arity;
+
+    for (int index = 0; index < capacity; index++) this.positions[index] = -1;
+  }
+
+  public int getLength() {
+    return this.length;
+  }
+
+  public int getCapacity() {
+    return this.positions.length;
+  }
+
+  public boolean isEmpty() {
+    return this.length == 0;
+  }
+
+  public int getArity() {
+    return this.arity;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= this.positions.length) throw new IndexOutOfBoundsException();
+  }
+
+  private boolean less(int a, int b) {
+    return this.priorities[a] < this.priorities[b];
+  }
+
+  /** Moves the index up from the specified position until it is not lower than its parent. */
+  private void siftUp(int index, int position) {
+    while (position > 0) {
+      int parent = (position - 1) / this.arity;
+
+      if (!this.less(index, this.heap[parent])) break;
+
+      this.heap[position] = this.heap[parent];
+      this.positions[this.heap[position]] = position;
+      position = parent;
+    }
+
+    this.heap[position] = index;
+    this.positions[index] = position;
+  }
+
+  /** Moves the index down from the specified position until it is not higher than its children. */
+  private void siftDown(int index, int position) {
+    while (true) {
+      int firstChild = position * this.arity + 1;
+
+      if (firstChild >= this.length) break;
+
+      int lastChild = Math.min(firstChild + this.arity, this.length);
+      int lowestChild = firstChild;
+
+      for (int child = firstChild + 1; child < lastChild; child++)
+        if (this.less(this.heap[child], this.heap[lowestChild])) lowestChild = child;
+
+      if (!this.less(this.heap[lowestChild], index)) break;
+
+      this.heap[position] = this.heap[lowestChild];
+      this.positions[this.heap[position]] = position;
+      position = lowestChild;
+    }
+
+    this.heap[position] = index;
+    this.positions[index] = position;
+  }
+
+  /**
+   * Returns whether the specified index is in this queue.
+   *
+   * @param index
+   * @return {@code true} if the index is queued
+   * @throws IndexOutOfBoundsException if the index is not between 0 and the capacity.
+   */
+  public boolean contains(int index) {
+    this.checkIndex(index);
+
+    return this.positions[index] != -1;
+  }
+
+  /**
+   * Returns the priority of the specified index.
+   *
+   * @param index
+   * @return the priority of the index
+   * @throws IndexOutOfBoundsException if the index is not between 0 and the capacity.
+   * @throws NoSuchElementException if the index is not queued.
+   */
+  public long getPriority(int index) {
+    this.checkIndex(index);
+
+    if (this.positions[index] == -1) throw new NoSuchElementException();
+
+    return this.priorities[index];
+  }
+
+  /**
+   * Adds an index with the specified priority, or changes its priority if it is already queued.
+   *
+   * @param index
+   * @param priority
+   * @throws IndexOutOfBoundsException if the index is not between 0 and the capacity.
+   */
+  public void put(int index, long priority) {
+    this.checkIndex(index);
+
+    if (this.positions[index] == -1) {
+      this.priorities[index] = priority;
+      this.siftUp(index, this.length++);
+      return;
+    }
+
+    long oldPriority = this.priorities[index];
+    this.priorities[index] = priority;
+
+    if (priority < oldPriority) this.siftUp(index, this.positions[index]);
+    else if (priority > oldPriority) this.siftDown(index, this.positions[index]);
+  }
+
+  /**
+   * Lowers the priority of a queued index, leaving it unchanged if the specified priority is not
+   * lower.
+   *
+   * @param index
+   * @param priority
+   * @return {@code true} if the index was queued with a higher priority
+   * @throws IndexOutOfBoundsException if the index is not between 0 and the capacity.
+   */
+  public boolean decreaseKey(int index, long priority) {
+    this.checkIndex(index);
+
+    if (this.positions[index] == -1 || priority >= this.priorities[index]) return false;
+
+    this.priorities[index] = priority;
+    this.siftUp(index, this.positions[index]);
+    return true;
+  }
+
+  /**
+   * Removes an index from this queue, if it is queued.
+   *
+   * @param index
+   * @return {@code true} if the index was queued
+   * @throws IndexOutOfBoundsException if the index is not between 0 and the capacity.
+   */
+  public boolean remove(int index) {
+    this.checkIndex(index);
+
+    int position = this.positions[index];
+
+    if (position == -1) return false;
+
+    this.positions[index] = -1;
+
+    int last = this.heap[--this.length];
+
+    // Fill the hole with the last index, which may belong above or below it.
+    if (last != index) {
+      this.siftUp(last, position);
+      if (this.positions[last] == position) this.siftDown(last, position);
+    }
+
+    return true;
+  }
+
+  /**
+   * Removes the index with the lowest priority.
+   *
+   * @return the index with the lowest priority, or -1 if the queue is empty
+   */
+  public int dequeue() {
+    if (this.length == 0) return -1;
+
+    int index = this.heap[0];
+    this.positions[index] = -1;
+
+    int last = this.heap[--this.length];
+    if (this.length > 0) this.siftDown(last, 0);
+
+    return index;
+  }
+
+  /**
+   * Returns the index with the lowest priority without removing it.
+   *
+   * @return the index with the lowest priority, or -1 if the queue is empty
+   */
+  public int peek() {
+    return this.length == 0 ? -1 : this.heap[0];
+  }
+
+  /**
+   * Returns the lowest priority in this queue.
+   *
+   * @return the priority of the index that {@code dequeue} returns next
+   * @throws NoSuchElementException if the queue is empty.
+   */
+  public long peekPriority() {
+    if (this.length == 0) throw new NoSuchElementException();
+
+    return this.priorities[this.heap[0]];
+  }
+}
@@ -0,0 +1,344 @@
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * A map from strings to values based on a radix tree (a compressed trie).
+ *
+ * <p>Each edge is labeled with a run of characters instead of a single one, so a chain of nodes
+ * with one child each is stored as a single node. A node keeps the first characters of its
+ * children's labels in a sorted {@code char[]} next to the children themselves, and finds a child
+ * with a binary search over that array instead of following one object per character.
+ *
+ * <p>A trie that is done changing can be turned into a {@link FrozenTrie} with {@link #freeze()},
+ * which packs every node into a few flat arrays.
+ *
+ * <p>Operations with their time complexities, where k is the length of the key, are:
+ *
+ * <ul>
+ *   <li><code>put(String, V)</code>: O(k log a), where a is the size of the alphabet
+ *   <li><code>remove(String)</code>: O(k log a)
+ *   <li><code>get(String)</code>: O(k log a)
+ *   <li><code>longestPrefixMatch(String)</code>: O(k log a)
+ *   <li><code>prefixScan(String, BiConsumer)</code>: O(k log a + m), where m is the total
+ *       length of the matching keys
+ * </ul>
+ */
+@SuppressWarnings("unchecked")
+public class Trie<V> {
+  static final char[] NO_CHARS = new char[0];
+  static final Node[] NO_NODES = new Node[0];
+
+  static final class Node {
+    /** The characters on the edge from the parent to this node. */
+    char[] label;
+    Object value;
+    /** Whether a key ends at this node, since values may be {@code null}. */
+    boolean hasValue;
+    /** The first character of the label of each child, in increasing order. */
+    char[] firstChars = NO_CHARS;
+    /** The children, at the same indices as their first characters. */
+    Node[] children = NO_NODES;
+    int size; // The number of children
+
+    Node(char[] label) {
+      this.label = label;
+    }
+  }
+
+  Node root = new Node(NO_CHARS);
+  int length; // The number of keys in this trie
+
+  public int getLength() {
+    return this.length;
+  }
+
+  public boolean isEmpty() {
+    return this.length == 0;
+  }
+
+  /**
+   * Returns the index of the child whose label starts with the specified character.
+   *
+   * @return the index of the child if found, or {@code -(insertion point) - 1}
+   */
+  private static int childIndex(Node node, char c) {
+    return Arrays.binarySearch(node.firstChars, 0, node.size, c);
+  }
+
+  /** Inserts a child at the specified index, growing the arrays if they are full. */
+  private static void insertChild(Node node, int index, Node child) {
+    if (node.size == node.children.length) {
+      int newCapacity = Math.max(node.size * 2, 2);
+
+      node.firstChars = Arrays.copyOf(node.firstChars, newCapacity);
+      node.children = Arrays.copyOf(node.children, newCapacity);
+    }
+
+    System.arraycopy(node.firstChars, index, node.firstChars, index + 1, node.size - index);
+    System.arraycopy(node.children, index, node.children, index + 1, node.size - index);
+    node.firstChars[index] = child.label[0];
+    node.children[index] = child;
+    node.size++;
+  }
+
+  private static void removeChild(Node node, int index) {
+    System.arraycopy(node.firstChars, index + 1, node.firstChars, index, node.size - index - 1);
+    System.arraycopy(node.children, index + 1, node.children, index, node.size - index - 1);
+    node.children[--node.size] = null;
+  }
+
+  /**
+   * Returns the number of leading characters of a label that match the key starting at the
+   * specified offset.
+   */
+  private static int match(char[] label, String key, int offset) {
+    int limit = Math.min(label.length, key.length() - offset);
+    int matched = 0;
+
+    while (matched < limit && label[matched] == key.charAt(offset + matched)) matched++;
+
+    return matched;
+  }
+
+  /**
+   * Returns the node where the specified key ends.
+   *
+   * @return the node of the key, or {@code null} if no key in this trie starts with it
+   */
+  private Node find(String key) {
+    Node node = this.root;
+    int offset = 0;
+
+    while (offset < key.length()) {
+      int index = childIndex(node, key.charAt(offset));
+
+      if (index < 0) return null;
+
+      node = node.children[index];
+
+      if (match(node.label, key, offset) != node.label.length) return null;
+
+      offset += node.label.length;
+    }
+
+    return node;
+  }
+
+  /**
+   * Returns the value of the specified key.
+   *
+   * @param key
+   * @return the value of the key, or {@code null} if the key is not in the trie
+   */
+  public V get(String key) {
+    Node node = this.find(key);
+
+    return node == null ? null : (V) node.value;
+  }
+
+  public boolean containsKey(String key) {
+    Node node = this.find(key);
+
+    return node != null && node.hasValue;
+  }
+
+  /**
+   * Puts a key-value pair into this trie, overriding the value if the key already exists.
+   *
+   * <p>If the key ends in the middle of an edge, or leaves it in the middle, the edge is split in
+   * two at that point.
+   *
+   * @param key
+   * @param value
+   */
+  public void put(String key, V value) {
+    Node node = this.root;
+    int offset = 0;
+
+    while (offset < key.length()) {
+      int index = childIndex(node, key.charAt(offset));
+
+      if (index < 0) {
+        Node leaf = new Node(key.substring(offset).toCharArray());
+        leaf.value = value;
+        leaf.hasValue = true;
+
+        insertChild(node, -(index + 1), leaf);
+        this.length++;
+        return;
+      }
+
+      Node child = node.children[index];
+      int matched = match(child.label, key, offset);
+
+      if (matched < child.label.length) {
+        // Split the edge: the matched part becomes a new node above the child.
+        Node middle = new Node(Arrays.copyOf(child.label, matched));
+        child.label = Arrays.copyOfRange(child.label, matched, child.label.length);
+        insertChild(middle, 0, child);
+        node.children[index] = middle;
+        child = middle;
+      }
+
+      node = child;
+      offset += matched;
+    }
+
+    if (!node.hasValue) this.length++;
+
+    node.value = value;
+    node.hasValue = true;
+  }
+
+  /**
+   * Removes a key-value pair from this trie, if it exists.
+   *
+   * <p>A node left without a value and with a single child is merged with that child, so the trie
+   * stays compressed.
+   *
+   * @param key
+   * @return the value of the removed key, or {@code null} if the key was not in the trie
+   */
+  public V remove(String key) {
+    Node parent = null;
+    int parentIndex = -1; // The index of the node among the children of the parent
+    Node node = this.root;
+    int offset = 0;
+
+    while (offset < key.length()) {
+      int index = childIndex(node, key.charAt(offset));
+
+      if (index < 0) return null;
+
+      Node child = node.children[index];
+
+      if (match(child.label, key, offset) != child.label.length) return null;
+
+      parent = node;
+      parentIndex = index;
+      node = child;
+      offset += child.label.length;
+    }
+
+    if (!node.hasValue) return null;
+
+    V removedValue = (V) node.value;
+    node.value = null;
+    node.hasValue = false;
+    this.length--;
+
+    if (parent == null) return removedValue; // The empty key, stored at the root
+
+    if (node.size == 0) {
+      removeChild(parent, parentIndex);
+
+      // The parent may now be a valueless node with a single child.
+      if (parent != this.root && !parent.hasValue && parent.size == 1) mergeWithChild(parent);
+    } else if (node.size == 1) {
+      mergeWithChild(node);
+    }
+
+    return removedValue;
+  }
+
+  /** Merges a node that has no value and a single child with that child. */
+  private static void mergeWithChild(Node node) {
+    Node child = node.children[0];
+    char[] label = Arrays.copyOf(node.label, node.label.length + child.label.length);
+    System.arraycopy(child.label, 0, label, node.label.length, child.label.length);
+
+    node.label = label;
+    node.value = child.value;
+    node.hasValue = child.hasValue;
+    node.firstChars = child.firstChars;
+    node.children = child.children;
+    node.size = child.size;
+  }
+
+  /**
+   * Returns the longest key in this trie that is a prefix of the specified text.
+   *
+   * @param text
+   * @return the longest key that the text starts with, or {@code null} if there is none
+   */
+  public String longestPrefixMatch(String text) {
+    Node node = this.root;
+    int offset = 0;
+    int longest = node.hasValue ? 0 : -1;
+
+    while (offset < text.length()) {
+      int index = childIndex(node, text.charAt(offset));
+
+      if (index < 0) break;
+
+      node = node.children[index];
+
+      if (match(node.label, text, offset) != node.label.length) break;
+
+      offset += node.label.length;
+
+      if (node.hasValue) longest = offset;
+    }
+
+    return longest == -1 ? null : text.substring(0, longest);
+  }
+
+  /**
+   * Calls an action on every key-value pair whose key starts with the specified prefix, in
+   * lexicographic order of the keys.
+   *
+   * <p>Keys are built one at a time in a single buffer while walking the subtree of the prefix, so
+   * the only allocation per pair is the key string passed to the action.
+   *
+   * @param prefix
+   * @param action
+   */
+  public void prefixScan(String prefix, BiConsumer<? super String, ? super V> action) {
+    Node node = this.root;
+    int offset = 0;
+
+    while (offset < prefix.length()) {
+      int index = childIndex(node, prefix.charAt(offset));
+
+      if (index < 0) return;
+
+      node = node.children[index];
+      int matched = match(node.label, prefix, offset);
+
+      // The prefix must either cover the whole label, or end partway through it.
+      if (matched != node.label.length && offset + matched != prefix.length()) return;
+
+      offset += node.label.length;
+    }
+
+    // The key of the node starts with the prefix, and may go past it if it ended within a label.
+    int overshoot = offset - prefix.length();
+    StringBuilder key = new StringBuilder(prefix);
+    key.append(node.label, node.label.length - overshoot, overshoot);
+
+    scan(node, key, action);
+  }
+
+  private static <V> void scan(
+      Node node, StringBuilder key, BiConsumer<? super String, ? super V> action) {
+    if (node.hasValue) action.accept(key.toString(), (V) node.value);
+
+    for (int i = 0; i < node.size; i++) {
+      Node child = node.children[i];
+      int keyLength = key.length();
+
+      key.append(child.label);
+      scan(child, key, action);
+      key.setLength(keyLength);
+    }
+  }
+
+  /**
+   * Returns an immutable copy of this trie with every node packed into flat arrays.
+   *
+   * @return a frozen copy of this trie
+   */
+  public FrozenTrie<V> freeze() {
+    return new FrozenTrie<V>(this);
+  }
+}